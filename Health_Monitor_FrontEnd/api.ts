@@ -5,3 +5,6 @@
 //    - Example: 'http://192.168.1.10:8080'
 
 export const API_BASE_URL = "http://192.168.1.236:8080";
+
+// Id of the ESP32 paired with this app (must match deviceId in the firmware)
+export const DEVICE_ID = "esp32-01";
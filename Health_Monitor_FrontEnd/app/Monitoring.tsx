@@ -19,6 +19,7 @@ import {
 } from "@expo/vector-icons";
 import axios from "axios";
 import { baseURL } from "@/config/axiosConfig";
+import { DEVICE_ID } from "@/api";
 import SensorData from "@/constants/SensorData";
 import { useAppContext } from "@/context/AppContext";
 import { useNavigation, useFocusEffect } from "@react-navigation/native";
@@ -74,6 +75,7 @@ export default function Monitoring() {
   }, [records]);
 
   const fetchTimer = useRef<ReturnType<typeof setInterval> | null>(null);
+  const streamSocket = useRef<WebSocket | null>(null);
   const measureTimer = useRef<ReturnType<typeof setInterval> | null>(null);
 
   const wave1 = useRef(new Animated.Value(0)).current;
@@ -81,6 +83,7 @@ export default function Monitoring() {
 
   useEffect(() => {
     return () => {
+      streamSocket.current?.close();
       fetchTimer.current && clearInterval(fetchTimer.current);
       measureTimer.current && clearInterval(measureTimer.current);
       wave1.stopAnimation();
@@ -112,12 +115,25 @@ export default function Monitoring() {
       setMeasuring(true);
       setLoading(true);
 
-      fetchTimer.current = setInterval(() => {
-        fetchData();
-      }, 1000);
+      // Prefer pushed samples; fall back to polling if the socket can't be used
+      const socket = new WebSocket(
+        `${baseURL.replace(/^http/, "ws")}/data/ws?deviceId=${encodeURIComponent(DEVICE_ID)}`
+      );
+      streamSocket.current = socket;
+      socket.onmessage = (event) => handleSample(JSON.parse(event.data));
+      socket.onerror = () => {
+        if (!fetchTimer.current) {
+          fetchTimer.current = setInterval(() => {
+            fetchData();
+          }, 1000);
+        }
+      };
 
       return () => {
+        streamSocket.current?.close();
+        streamSocket.current = null;
         fetchTimer.current && clearInterval(fetchTimer.current);
+        fetchTimer.current = null;
         measureTimer.current && clearInterval(measureTimer.current);
         wave1.stopAnimation();
         wave2.stopAnimation();
@@ -127,50 +143,54 @@ export default function Monitoring() {
 
   const fetchData = async () => {
     try {
-      if (!isProfileComplete() || !measuring) {
-        return;
-      }
-      const { data } = await axios.get<SensorData>(`${baseURL}/data`);
-      setHealthData(data);
-
-      if (measuring) {
-        if (data.bpm > 0) {
-          setWarning("");
-          setLastStable(data);
-
-          if (!validStarted.current) {
-            validStarted.current = true;
-            animatePulse();
-            setLoading(false);
-
-            let seconds = 0;
-            measureTimer.current = setInterval(() => {
-              seconds++;
-              setElapsed(seconds);
-
-              if (seconds >= 10) {
-                stopMeasure(recordsRef.current);
-              }
-            }, 1000);
-          }
-
-          setRecords((prev) => [...prev, data]);
-        } else {
-          if (!validStarted.current) {
-            setWarning("⚠️ Please place your finger on the sensor.");
-          }
-        }
-      }
+      const { data } = await axios.get<SensorData>(`${baseURL}/data`, {
+        params: { deviceId: DEVICE_ID },
+      });
+      handleSample(data);
     } catch (error) {
       console.error(error);
       if (measuring) setHealthData(null);
-    } finally {
+    }
+  };
+
+  const handleSample = (data: SensorData) => {
+    if (!isProfileComplete() || !measuring) {
+      return;
+    }
+    setHealthData(data);
+
+    if (data.bpm > 0) {
+      setWarning("");
+      setLastStable(data);
+
+      if (!validStarted.current) {
+        validStarted.current = true;
+        animatePulse();
+        setLoading(false);
+
+        let seconds = 0;
+        measureTimer.current = setInterval(() => {
+          seconds++;
+          setElapsed(seconds);
+
+          if (seconds >= 10) {
+            stopMeasure(recordsRef.current);
+          }
+        }, 1000);
+      }
+
+      setRecords((prev) => [...prev, data]);
+    } else {
+      if (!validStarted.current) {
+        setWarning("⚠️ Please place your finger on the sensor.");
+      }
     }
   };
 
   const stopMeasure = async (finalRecords: SensorData[]) => {
     setMeasuring(false);
     setLoading(false);
+    streamSocket.current?.close();
     fetchTimer.current && clearInterval(fetchTimer.current);
     measureTimer.current && clearInterval(measureTimer.current);
     wave1.stopAnimation();
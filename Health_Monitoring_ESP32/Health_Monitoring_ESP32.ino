@@ -12,7 +12,24 @@
 #define REPORTING_PERIOD_MS 1000  // sensor print interval
 #define HTTP_SEND_PERIOD_MS 1000  // HTTP POST interval
 #define NO_BEAT_TIMEOUT_MS 10000  // 10 seconds no beat timeout
-
+#define USE_BINARY_FRAMES 1       // 0 = send JSON instead of the compact binary frame
+
+// Must match SensorFrameCodec on the server (42 bytes, little-endian)
+typedef struct __attribute__((packed)) {
+  uint8_t magic;          // 0xA5
+  uint8_t version;        // 1
+  uint16_t bootId;        // random per power-up, so the server sees the counter restart
+  char deviceId[16];      // NUL padded
+  uint32_t sequence;
+  uint64_t timestamp;     // epoch millis, 0 = let the server stamp it
+  int16_t temperature;    // 0.01 C
+  uint16_t humidity;      // 0.01 %
+  int16_t bodyTemperature;// 0.01 C
+  uint16_t bpm;           // 0.1
+  uint16_t spo2;          // 0.1 %
+} SensorFrame;
+
+const char* deviceId = "esp32-01";
 const char* serverUrl = "http://192.168.0.106:8080/data";
 const char* ssid = "Georgievi";
 const char* password = "1236547890";
@@ -27,6 +44,7 @@ DallasTemperature sensors(&oneWire);
 TaskHandle_t httpTaskHandle = NULL;
 
 volatile uint32_t lastBeatTime = 0;  // updated in ISR callback
+uint16_t bootId = 0;
 
 void IRAM_ATTR onBeatDetected() {
   lastBeatTime = millis();
@@ -35,6 +53,8 @@ void IRAM_ATTR onBeatDetected() {
 
 void setup() {
   Serial.begin(115200);
+  // Non-zero: 0 tells the server this device sends no boot id
+  while (bootId == 0) bootId = (uint16_t)esp_random();
   pinMode(38, OUTPUT);
 
   sensors.begin();
@@ -115,7 +135,27 @@ void httpTask(void *pvParameters) {
   while (true) {
     if (WiFi.status() == WL_CONNECTED) {
       HTTPClient http;
-      http.begin(serverUrl);
+      http.begin(String(serverUrl) + "?deviceId=" + deviceId);
+      int httpResponseCode;
+
+#if USE_BINARY_FRAMES
+      static uint32_t sequence = 0;
+      SensorFrame frame = {};
+      frame.magic = 0xA5;
+      frame.version = 1;
+      frame.bootId = bootId;
+      strncpy(frame.deviceId, deviceId, sizeof(frame.deviceId));
+      frame.sequence = ++sequence;
+      frame.timestamp = 0;
+      frame.temperature = isnan(temperature) ? 0 : (int16_t)lroundf(temperature * 100);
+      frame.humidity = isnan(humidity) ? 0 : (uint16_t)lroundf(humidity * 100);
+      frame.bodyTemperature = isnan(bodytemperatureC) ? 0 : (int16_t)lroundf(bodytemperatureC * 100);
+      frame.bpm = (uint16_t)lroundf(BPM * 10);
+      frame.spo2 = (uint16_t)lroundf(SpO2 * 10);
+
+      http.addHeader("Content-Type", "application/vnd.health-monitor.sensor-frame");
+      httpResponseCode = http.POST((uint8_t*)&frame, sizeof(frame));
+#else
       http.addHeader("Content-Type", "application/json");
 
       String json = "{";
@@ -126,7 +166,8 @@ void httpTask(void *pvParameters) {
       json += "\"spo2\":" + String(SpO2, 1);
       json += "}";
 
-      int httpResponseCode = http.POST(json);
+      httpResponseCode = http.POST(json);
+#endif
 
       if (httpResponseCode > 0) {
         Serial.printf("HTTP Response code: %d\n", httpResponseCode);
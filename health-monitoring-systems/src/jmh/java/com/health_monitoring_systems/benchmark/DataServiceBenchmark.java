@@ -0,0 +1,94 @@
+package com.health_monitoring_systems.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.health_monitoring_systems.config.WorkerThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.health_monitoring_systems.model.SensorData;
+import com.health_monitoring_systems.model.SensorSnapshot;
+import com.health_monitoring_systems.service.AnomalyAlertNotifier;
+import com.health_monitoring_systems.service.DataService;
+import com.health_monitoring_systems.service.IngestAdmission;
+import com.health_monitoring_systems.service.LiveStateRegistry;
+import com.health_monitoring_systems.service.LiveStreamRecorder;
+import com.health_monitoring_systems.service.SensorStreamHub;
+import com.health_monitoring_systems.service.VitalsAnomalyDetector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * POST /data and GET /data paths under contention: three ingest threads and one reader share
+ * a pool of devices, so writes to the same device collide as they would with bursty firmware.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataServiceBenchmark {
+
+    @Param({"1", "1000"})
+    public int devices;
+
+    private DataService dataService;
+    private String[] deviceIds;
+
+    @Setup
+    public void setUp() {
+        LiveStateRegistry registry = new LiveStateRegistry(10_000, 64, 300, 2000);
+        SensorStreamHub hub = new SensorStreamHub(new ObjectMapper(), WorkerThreads.platform(), 1);
+        // Readings stay inside the limits, so the notifier (and its database lookups) is never reached
+        VitalsAnomalyDetector detector = new VitalsAnomalyDetector(
+                new AnomalyAlertNotifier(null, null, new SimpleMeterRegistry(), WorkerThreads.platform(), 16),
+                0.05, 4.0, 30, 3, 600, 300, 40, 150, 90, 100, 35.0, 38.5);
+        // Windows are only closed by the scheduled flush, which never runs here
+        LiveStreamRecorder recorder = new LiveStreamRecorder(null, null, new SimpleMeterRegistry(),
+                true, 60, 5, 60, 300);
+        IngestAdmission admission = new IngestAdmission(registry, detector, new SimpleMeterRegistry(),
+                10, 50, 5, 20, 65536, 64, 1000);
+        dataService = new DataService(registry, hub, detector, recorder, admission, new SimpleMeterRegistry());
+        deviceIds = new String[devices];
+        for (int i = 0; i < devices; i++) {
+            deviceIds[i] = "esp32-" + i;
+            dataService.getSensorDataFromArduino(deviceIds[i], new SensorData(22f, 40f, 36.6f, 72f, 97f));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sample {
+        final SensorData data = new SensorData(22f, 40f, 36.6f, 72f, 97f);
+    }
+
+    private String pickDevice() {
+        return deviceIds[ThreadLocalRandom.current().nextInt(deviceIds.length)];
+    }
+
+    @Benchmark
+    @Group("ingest")
+    @GroupThreads(3)
+    public SensorSnapshot ingest(Sample sample) {
+        sample.data.bpm = 70 + ThreadLocalRandom.current().nextInt(5);
+        return dataService.getSensorDataFromArduino(pickDevice(), sample.data);
+    }
+
+    @Benchmark
+    @Group("ingest")
+    @GroupThreads(1)
+    public SensorSnapshot readLatest() {
+        return dataService.getSensorData(pickDevice());
+    }
+
+    @Benchmark
+    @Group("history")
+    @GroupThreads(3)
+    public SensorSnapshot ingestWhileReadingHistory(Sample sample) {
+        return dataService.getSensorDataFromArduino(pickDevice(), sample.data);
+    }
+
+    @Benchmark
+    @Group("history")
+    @GroupThreads(1)
+    public List<SensorSnapshot> readHistory() {
+        return dataService.getSensorHistory(pickDevice(), 60);
+    }
+}
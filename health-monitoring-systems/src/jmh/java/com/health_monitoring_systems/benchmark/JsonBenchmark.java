@@ -0,0 +1,77 @@
+package com.health_monitoring_systems.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.health_monitoring_systems.dto.MeasurementRequest;
+import com.health_monitoring_systems.model.SensorData;
+import com.health_monitoring_systems.model.UserMeasurements;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request and response (de)serialization with the same Jackson setup Spring Boot uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonBenchmark {
+
+    private static final byte[] SENSOR_DATA = ("{\"temperature\":22.4,\"humidity\":41.0,\"bodyTemperature\":36.7,"
+            + "\"bpm\":72.5,\"spo2\":97.0}").getBytes();
+    private static final byte[] MEASUREMENT = ("{\"userEmail\":\"patient@example.com\",\"temperature\":36.7,"
+            + "\"heartRate\":72,\"oxygen\":97,\"humidity\":41.0,\"roomTemperature\":22.4,"
+            + "\"dateOfMeasurement\":\"2025-03-01T10:15:30\"}").getBytes();
+
+    @Param({"100", "10000"})
+    public int measurements;
+
+    private ObjectReader sensorDataReader;
+    private ObjectReader measurementReader;
+    private ObjectWriter listWriter;
+    private List<UserMeasurements> rows;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        sensorDataReader = mapper.readerFor(SensorData.class);
+        measurementReader = mapper.readerFor(MeasurementRequest.class);
+        listWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, UserMeasurements.class));
+
+        rows = new ArrayList<>(measurements);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < measurements; i++) {
+            UserMeasurements row = new UserMeasurements();
+            row.setId((long) i);
+            row.setTemperature(36.5 + (i % 10) / 10.0);
+            row.setHeartRate(60 + i % 40);
+            row.setOxygen(95 + i % 5);
+            row.setHumidity(40 + i % 20);
+            row.setRoomTemperature(21.5);
+            row.setDateOfMeasurement(start.plusMinutes(i));
+            rows.add(row);
+        }
+    }
+
+    @Benchmark
+    public SensorData readSensorData() throws Exception {
+        return sensorDataReader.readValue(SENSOR_DATA);
+    }
+
+    @Benchmark
+    public MeasurementRequest readMeasurementRequest() throws Exception {
+        return measurementReader.readValue(MEASUREMENT);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] writeMeasurementList() throws Exception {
+        return listWriter.writeValueAsBytes(rows);
+    }
+}
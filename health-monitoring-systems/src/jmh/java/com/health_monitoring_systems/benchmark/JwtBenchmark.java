@@ -0,0 +1,40 @@
+package com.health_monitoring_systems.benchmark;
+
+import com.health_monitoring_systems.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and parse cost. {@code extractUsername} always parses; {@code verify} is what the
+ * authentication filter calls and is served from the token cache after the first hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtBenchmark {
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService("benchmark-secret-benchmark-secret-32-bytes!", 60, 10_000);
+        token = jwtService.generateToken("patient@example.com");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("patient@example.com");
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public JwtService.VerifiedToken verifyCached() {
+        return jwtService.verify(token);
+    }
+}
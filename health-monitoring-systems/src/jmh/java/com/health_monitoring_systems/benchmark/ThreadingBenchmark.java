@@ -0,0 +1,105 @@
+package com.health_monitoring_systems.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Platform versus virtual threads for request-shaped blocking work. Each operation is a burst of
+ * {@code requests} concurrent tasks that each block for {@code blockMillis}, like a handler
+ * waiting on JDBC, SMTP or RapidAPI. The platform pool is sized like Tomcat's default (200).
+ * With {@code pinned=true} the wait happens inside {@code synchronized}, which pins a virtual
+ * thread to its carrier and shows what un-migrated locking costs.
+ *
+ * <p>The {@code virtual} mode needs JDK 21+; on older JDKs those runs fail in setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ThreadingBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String mode;
+
+    @Param({"2000"})
+    public int requests;
+
+    @Param({"10"})
+    public int blockMillis;
+
+    @Param({"false", "true"})
+    public boolean pinned;
+
+    private Executor executor;
+    private ExecutorService platformPool;
+
+    @Setup
+    public void setUp() {
+        if (mode.equals("virtual")) {
+            if (Runtime.version().feature() < 21) {
+                throw new IllegalStateException("Virtual threads need JDK 21+, running on " + Runtime.version());
+            }
+            executor = new VirtualThreadTaskExecutor("bench-");
+        } else {
+            platformPool = Executors.newFixedThreadPool(200);
+            executor = platformPool;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (platformPool != null) {
+            platformPool.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    block();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    private void block() {
+        if (pinned) {
+            // A fresh monitor per task: no contention, only the pinning effect
+            Object monitor = new Object();
+            synchronized (monitor) {
+                sleep();
+            }
+        } else {
+            ReentrantLock lock = new ReentrantLock();
+            lock.lock();
+            try {
+                sleep();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(blockMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.health_monitoring_systems.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * With {@code spring.main.lazy-initialization=true} (the prod profile), beans are created on
+ * first use, except those that have work to do without being asked: scheduled jobs, event
+ * listeners, beans that start threads or sockets in {@code @PostConstruct}, and lifecycle beans.
+ * Left lazy, a write-behind flusher or catch-up job would silently never start. Their own
+ * dependencies are created eagerly along with them.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    private static final List<Class<? extends Annotation>> ACTIVE_METHOD_ANNOTATIONS =
+            List.of(Scheduled.class, EventListener.class, PostConstruct.class, PreDestroy.class);
+
+    @Bean
+    static LazyInitializationExcludeFilter activeBeansStayEager() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (SmartLifecycle.class.isAssignableFrom(beanType)
+                || ApplicationRunner.class.isAssignableFrom(beanType)
+                || hasActiveMethod(beanType));
+    }
+
+    private static boolean hasActiveMethod(Class<?> beanType) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanType, ReflectionUtils.USER_DECLARED_METHODS)) {
+            for (Class<? extends Annotation> annotation : ACTIVE_METHOD_ANNOTATIONS) {
+                if (method.isAnnotationPresent(annotation)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
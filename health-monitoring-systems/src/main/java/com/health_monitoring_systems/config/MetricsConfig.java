@@ -0,0 +1,30 @@
+package com.health_monitoring_systems.config;
+
+import com.health_monitoring_systems.service.LiveStateRegistry;
+import com.health_monitoring_systems.service.SensorStreamHub;
+import com.health_monitoring_systems.service.VitalsAnomalyDetector;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Gauges are sampled at scrape time, so they cost nothing on the ingest path
+    @Bean
+    public MeterBinder liveDeviceMetrics(LiveStateRegistry registry, SensorStreamHub streamHub,
+                                         VitalsAnomalyDetector anomalyDetector) {
+        return meterRegistry -> {
+            Gauge.builder("sensor.live.devices", registry, LiveStateRegistry::deviceCount)
+                    .description("Devices with live state in memory")
+                    .register(meterRegistry);
+            Gauge.builder("sensor.stream.subscribers", streamHub, SensorStreamHub::subscriberCount)
+                    .description("Open SSE and WebSocket subscriptions")
+                    .register(meterRegistry);
+            Gauge.builder("sensor.anomaly.devices", anomalyDetector, VitalsAnomalyDetector::deviceCount)
+                    .description("Devices with an anomaly-detection baseline")
+                    .register(meterRegistry);
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.health_monitoring_systems.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Read/write splitting, active once {@code app.datasource.replica.jdbc-url} is set. The primary
+ * pool is built from {@code spring.datasource.*} as before; read-only transactions (history,
+ * export, rollups and other reads marked {@code @Transactional(readOnly = true)}, including
+ * Spring Data's finder defaults) go to the replica pool while it keeps up. Both pools are
+ * separate Hikari beans, so their metrics are reported per pool.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "app.datasource.replica.jdbc-url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        // Fail fast so a dead replica doesn't stall reads before the monitor notices
+        dataSource.setConnectionTimeout(2000);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaMonitor replicaMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                         @Qualifier("replicaDataSource") DataSource replica,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${app.datasource.routing.max-lag-seconds:5}") long maxLagSeconds) {
+        return new ReplicaMonitor(primary, replica, Duration.ofSeconds(maxLagSeconds), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaMonitor monitor,
+                                 MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, monitor, meterRegistry));
+    }
+}
@@ -0,0 +1,59 @@
+package com.health_monitoring_systems.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out replica connections inside read-only transactions while the {@link ReplicaMonitor}
+ * reports the replica healthy, and primary connections otherwise. It must sit behind a
+ * {@code LazyConnectionDataSourceProxy}: the transaction manager opens its connection before
+ * the read-only flag is bound to the thread, so the physical connection has to be fetched lazily.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final ReplicaMonitor monitor;
+    private final Counter writes;
+    private final Counter replicaReads;
+    private final Counter fallbackReads;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaMonitor monitor,
+                                      MeterRegistry meterRegistry) {
+        this.monitor = monitor;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        this.writes = route(meterRegistry, PRIMARY, false);
+        this.replicaReads = route(meterRegistry, REPLICA, true);
+        this.fallbackReads = route(meterRegistry, PRIMARY, true);
+    }
+
+    private static Counter route(MeterRegistry meterRegistry, String target, boolean readOnly) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out, by target pool and transaction type")
+                .tag("target", target)
+                .tag("read.only", String.valueOf(readOnly))
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return PRIMARY;
+        }
+        if (monitor.isAvailable()) {
+            replicaReads.increment();
+            return REPLICA;
+        }
+        fallbackReads.increment();
+        return PRIMARY;
+    }
+}
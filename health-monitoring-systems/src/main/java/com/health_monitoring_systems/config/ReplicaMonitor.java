@@ -0,0 +1,111 @@
+package com.health_monitoring_systems.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Decides whether the read replica may serve reads. Each check writes a heartbeat row on the
+ * primary and reads it back from the replica; the age of the replica's copy is the replication
+ * lag (to within one check interval). A replica that is unreachable, has never seen a heartbeat
+ * or lags more than {@code maxLag} is taken out of rotation until a later check passes.
+ */
+public class ReplicaMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final Duration maxLag;
+    private volatile boolean available;
+    private volatile double lagSeconds = Double.NaN;
+    // Set once the heartbeat table exists, so later checks are a single-row UPDATE
+    private volatile boolean heartbeatReady;
+
+    public ReplicaMonitor(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout(2);
+        this.maxLag = maxLag;
+        Gauge.builder("datasource.replica.lag", this, ReplicaMonitor::getLagSeconds)
+                .description("Age of the newest heartbeat visible on the read replica")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.available", this, m -> m.isAvailable() ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.check-interval-ms:2000}")
+    public void check() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            beat(now);
+        } catch (DataAccessException e) {
+            logger.warn("Could not write the replication heartbeat: {}", e.getMessage());
+        }
+        try {
+            Timestamp seen = replica.queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1", Timestamp.class);
+            double lag = Duration.between(seen.toLocalDateTime(), now).toMillis() / 1000.0;
+            lagSeconds = Math.max(0, lag);
+            update(lag <= maxLag.toMillis() / 1000.0, "lag " + lag + "s");
+        } catch (DataAccessException e) {
+            lagSeconds = Double.NaN;
+            update(false, e.getMessage());
+        }
+    }
+
+    private void beat(LocalDateTime now) {
+        if (!heartbeatReady) {
+            createHeartbeat(now);
+            heartbeatReady = true;
+            return;
+        }
+        if (primary.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", Timestamp.valueOf(now)) == 0) {
+            // Row deleted behind our back; recreate it on the next check
+            heartbeatReady = false;
+        }
+    }
+
+    // Runs on the first check that reaches the primary rather than at startup, so a primary that
+    // is down when the app starts doesn't leave the monitor without its table
+    private void createHeartbeat(LocalDateTime now) {
+        primary.execute("CREATE TABLE IF NOT EXISTS replication_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP(3) NOT NULL)");
+        if (primary.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", Timestamp.valueOf(now)) == 0) {
+            try {
+                primary.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", Timestamp.valueOf(now));
+            } catch (DuplicateKeyException ignored) {
+                // Another instance created the row first
+            }
+        }
+    }
+
+    private void update(boolean healthy, String reason) {
+        if (healthy != available) {
+            if (healthy) {
+                logger.info("Read replica is back in rotation ({})", reason);
+            } else {
+                logger.warn("Routing reads to the primary, replica unavailable: {}", reason);
+            }
+        }
+        available = healthy;
+    }
+}
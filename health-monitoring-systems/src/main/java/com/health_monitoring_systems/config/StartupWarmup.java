@@ -0,0 +1,190 @@
+package com.health_monitoring_systems.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.health_monitoring_systems.dto.MeasurementRequest;
+import com.health_monitoring_systems.dto.MeasurementView;
+import com.health_monitoring_systems.model.SensorData;
+import com.health_monitoring_systems.model.SensorSnapshot;
+import com.health_monitoring_systems.repository.UserMeasurementsRepository;
+import com.health_monitoring_systems.repository.UserRepository;
+import com.health_monitoring_systems.security.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exercises the first-request hot paths (Jackson binding, JWT signing and parsing, the security
+ * filter chain and MVC dispatch, JPA queries and the connection pool) before the instance reports
+ * ready. Spring Boot flips readiness to ACCEPTING_TRAFFIC only after runners return, so during a
+ * rolling restart devices reach this instance once those paths are loaded and compiled.
+ * <p>
+ * Everything here is read-only: HTTP probes read a device that never sends data, and queries look
+ * up a user that does not exist. The latency of each probe's first call, and the warm-up and
+ * JVM startup times, are logged and kept as {@code startup.*} gauges for tracking regressions.
+ */
+@Component
+@ConditionalOnProperty(name = "app.startup.warmup.enabled", havingValue = "true")
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final String WARMUP_DEVICE = "__warmup";
+    private static final String WARMUP_EMAIL = "warmup@localhost";
+
+    private final Environment environment;
+    private final ObjectMapper objectMapper;
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+    private final UserMeasurementsRepository measurementsRepository;
+    private final TransactionTemplate readOnly;
+    private final MeterRegistry meterRegistry;
+    private final int iterations;
+
+    public StartupWarmup(Environment environment,
+                         ObjectMapper objectMapper,
+                         JwtService jwtService,
+                         UserRepository userRepository,
+                         UserMeasurementsRepository measurementsRepository,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.startup.warmup.iterations:100}") int iterations) {
+        this.environment = environment;
+        this.objectMapper = objectMapper;
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+        this.measurementsRepository = measurementsRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.iterations = Math.max(1, iterations);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        Map<String, Long> firstCallNanos = new LinkedHashMap<>();
+        try {
+            firstCallNanos.put("json", repeat(this::json));
+            firstCallNanos.put("jwt", repeat(this::jwt));
+            firstCallNanos.put("jpa", repeat(this::jpa));
+            warmHttp(firstCallNanos);
+        } catch (Exception e) {
+            // A cold instance is still better than one that never becomes ready
+            logger.warn("Startup warm-up stopped early", e);
+        }
+        long warmupNanos = System.nanoTime() - start;
+
+        gauge("startup.warmup.time", "Time spent warming hot paths before readiness", warmupNanos, null);
+        firstCallNanos.forEach((path, nanos) ->
+                gauge("startup.first.request", "Latency of the first call on each warmed path", nanos, path));
+        StringBuilder firstCalls = new StringBuilder();
+        firstCallNanos.forEach((path, nanos) ->
+                firstCalls.append(firstCalls.isEmpty() ? "" : ", ").append(path).append('=').append(millis(nanos)).append("ms"));
+        logger.info("Warm-up finished in {}ms, JVM up {}ms; first calls: {}",
+                millis(warmupNanos), ManagementFactory.getRuntimeMXBean().getUptime(), firstCalls);
+    }
+
+    /** Runs {@code task} {@code iterations} times and returns how long the first run took. */
+    private long repeat(Task task) throws Exception {
+        long first = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            task.run();
+            if (i == 0) {
+                first = System.nanoTime() - start;
+            }
+        }
+        return first;
+    }
+
+    private void json() throws Exception {
+        SensorData data = objectMapper.readValue(
+                "{\"temperature\":22.5,\"humidity\":40.1,\"bodyTemperature\":36.6,\"bpm\":72.0,\"spo2\":97.0}", SensorData.class);
+        objectMapper.writeValueAsString(SensorSnapshot.of(WARMUP_DEVICE, 1, System.currentTimeMillis(), data));
+        MeasurementRequest request = objectMapper.readValue(
+                "{\"userEmail\":\"" + WARMUP_EMAIL + "\",\"temperature\":36.6,\"heartRate\":72,\"oxygen\":97,"
+                        + "\"humidity\":40.0,\"roomTemperature\":22.5,\"dateOfMeasurement\":\"2024-01-01T12:00:00\"}",
+                MeasurementRequest.class);
+        objectMapper.writeValueAsBytes(List.of(new MeasurementView(1L, request.getTemperature(), request.getHeartRate(),
+                request.getOxygen(), request.getHumidity(), request.getRoomTemperature(), LocalDateTime.now())));
+    }
+
+    private void jwt() {
+        // extractUsername parses and verifies without going through the verified-token cache
+        jwtService.extractUsername(jwtService.generateToken(WARMUP_EMAIL));
+    }
+
+    private void jpa() {
+        readOnly.executeWithoutResult(status -> {
+            userRepository.findIdByEmail(WARMUP_EMAIL);
+            measurementsRepository.findLatestViews(0L, Limit.of(1));
+            measurementsRepository.findViewsAddedAfter(0L, 0, Limit.of(1));
+        });
+    }
+
+    private void warmHttp(Map<String, Long> firstCallNanos) throws Exception {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null || port <= 0) {
+            return;
+        }
+        String base = "http://localhost:" + port;
+        String authorization = "Bearer " + jwtService.generateToken(WARMUP_EMAIL);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        for (String path : List.of("/data?deviceId=" + WARMUP_DEVICE, "/data/history?deviceId=" + WARMUP_DEVICE)) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Authorization", authorization)
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            AtomicLong status = new AtomicLong();
+            firstCallNanos.put(path.replaceFirst("\\?.*", ""), repeat(() ->
+                    status.set(client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode())));
+            if (status.get() >= 400) {
+                logger.warn("Warm-up request {} answered {}", path, status.get());
+            }
+        }
+    }
+
+    private void gauge(String name, String description, long nanos, String path) {
+        TimeGauge.Builder<Long> builder = TimeGauge.builder(name, nanos, TimeUnit.NANOSECONDS, Long::doubleValue)
+                .description(description)
+                // The boxed value is referenced nowhere else
+                .strongReference(true);
+        if (path != null) {
+            builder.tag("path", path);
+        }
+        builder.register(meterRegistry);
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
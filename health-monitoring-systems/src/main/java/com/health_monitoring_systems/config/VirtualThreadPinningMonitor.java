@@ -0,0 +1,73 @@
+package com.health_monitoring_systems.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * In virtual-thread mode, watches JFR for virtual threads that block while pinned to their
+ * carrier (blocking inside {@code synchronized} or native code) and reports each occurrence
+ * longer than the threshold as a log line and on the {@code jvm.threads.virtual.pinned} timer.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final WorkerThreads workerThreads;
+    private final Timer pinned;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(WorkerThreads workerThreads,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${app.threads.pinning-threshold-ms:20}") long thresholdMillis) {
+        this.workerThreads = workerThreads;
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to a carrier thread")
+                .register(meterRegistry);
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!workerThreads.isVirtual()) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::report);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        String where = event.getStackTrace() == null ? "unknown" : event.getStackTrace().getFrames().stream()
+                .limit(8)
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining(" <- "));
+        logger.warn("Virtual thread pinned for {} ms: {}", event.getDuration().toMillis(), where);
+    }
+}
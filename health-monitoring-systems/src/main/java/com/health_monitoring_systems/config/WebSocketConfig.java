@@ -0,0 +1,24 @@
+package com.health_monitoring_systems.config;
+
+import com.health_monitoring_systems.controller.SensorStreamWebSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final SensorStreamWebSocketHandler sensorStreamHandler;
+
+    public WebSocketConfig(SensorStreamWebSocketHandler sensorStreamHandler) {
+        this.sensorStreamHandler = sensorStreamHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(sensorStreamHandler, "/data/ws")
+                .setAllowedOriginPatterns("*");
+    }
+}
@@ -0,0 +1,55 @@
+package com.health_monitoring_systems.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the threads behind the app's own background workers. With
+ * {@code spring.threads.virtual.enabled=true} on JDK 21+ they are virtual threads, so blocking
+ * JDBC, SMTP and HTTP calls give their carrier back; otherwise they are named daemon platform
+ * threads. Pool sizes stay as configured either way, since they also bound load on the database
+ * and upstream services.
+ */
+@Component
+public class WorkerThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerThreads.class);
+
+    private final boolean virtual;
+
+    public WorkerThreads(@Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+        if (virtual && Runtime.version().feature() < 21) {
+            logger.warn("spring.threads.virtual.enabled needs JDK 21+, running on {}; using platform threads",
+                    Runtime.version());
+            virtual = false;
+        }
+        this.virtual = virtual;
+    }
+
+    /** Platform threads regardless of configuration, for code constructed outside Spring. */
+    public static WorkerThreads platform() {
+        return new WorkerThreads(false);
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public ThreadFactory factory(String name) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,31 +1,107 @@
 package com.health_monitoring_systems.controller;
 
+import com.health_monitoring_systems.ingest.SensorFrameCodec;
 import com.health_monitoring_systems.model.SensorData;
-import com.health_monitoring_systems.model.User;
+import com.health_monitoring_systems.model.SensorSnapshot;
 import com.health_monitoring_systems.service.DataService;
-import com.health_monitoring_systems.service.UserService;
+import com.health_monitoring_systems.service.IngestAdmission;
+import com.health_monitoring_systems.service.SensorStreamHub;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
 
 @Controller
 @RequestMapping("/data")
 @AllArgsConstructor
 public class DataController {
 
+    // Firmware that predates device ids keeps writing to a shared slot
+    static final String DEFAULT_DEVICE = "default";
+
     private DataService dataService;
+    private IngestAdmission admission;
 
     @PostMapping
-    public ResponseEntity<SensorData> receiveData(@RequestBody SensorData data) {
-        return ResponseEntity.ok(dataService.getSensorDataFromArduino(data));
+    public ResponseEntity<SensorSnapshot> receiveData(@RequestParam(defaultValue = DEFAULT_DEVICE) String deviceId,
+                                                      @RequestBody SensorData data) {
+        admission.acquireDevice(deviceId, 1);
+        admission.enter();
+        try {
+            return ResponseEntity.ok(dataService.receiveData(deviceId, data));
+        } finally {
+            admission.exit();
+        }
+    }
+
+    // Same endpoint for firmware that sends the compact binary layout instead of JSON
+    @PostMapping(consumes = SensorFrameCodec.MEDIA_TYPE)
+    public ResponseEntity<String> receiveFrames(@RequestParam(defaultValue = DEFAULT_DEVICE) String deviceId,
+                                                @RequestBody byte[] frames) {
+        // A gateway batching many frames pays for each of them
+        admission.acquireDevice(deviceId, frames.length / SensorFrameCodec.FRAME_SIZE);
+        admission.enter();
+        try {
+            dataService.receiveFrames(ByteBuffer.wrap(frames), deviceId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } finally {
+            admission.exit();
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping
-    public ResponseEntity<SensorData> getData () {
-        return ResponseEntity.ok(dataService.getSensorData());
+    public ResponseEntity<SensorSnapshot> getData (@RequestParam(defaultValue = DEFAULT_DEVICE) String deviceId,
+                                                   WebRequest request) {
+        // Unchanged since the client's copy: 304 straight from the registry's sequence number
+        if (request.checkNotModified(dataService.getSensorDataEtag(deviceId))) {
+            return null;
+        }
+        return ResponseEntity.ok(dataService.getSensorData(deviceId));
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<?> getHistory(@RequestParam(defaultValue = DEFAULT_DEVICE) String deviceId,
+                                        @RequestParam(defaultValue = "60") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().body("limit must be at least 1");
+        }
+        return ResponseEntity.ok(dataService.getSensorHistory(deviceId, limit));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamData(@RequestParam(defaultValue = DEFAULT_DEVICE) String deviceId) {
+        // No server-side timeout; dead connections are found by the hub's heartbeat
+        SseEmitter emitter = new SseEmitter(0L);
+        SensorStreamHub.Subscription subscription = dataService.subscribe(deviceId, new SensorStreamHub.FrameSink() {
+            @Override
+            public void send(String frame) throws IOException {
+                emitter.send(SseEmitter.event().data(frame, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void ping() throws IOException {
+                emitter.send(SseEmitter.event().comment("ping"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
     }
 }
@@ -0,0 +1,37 @@
+package com.health_monitoring_systems.controller;
+
+import com.health_monitoring_systems.model.Device;
+import com.health_monitoring_systems.service.DeviceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/users/{userId}/devices")
+public class DeviceController {
+
+    private final DeviceService deviceService;
+
+    @Autowired
+    public DeviceController(DeviceService deviceService) {
+        this.deviceService = deviceService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Device>> getDevices(@PathVariable Long userId) {
+        return ResponseEntity.ok(deviceService.getDevices(userId));
+    }
+
+    @PutMapping("/{deviceId}")
+    public ResponseEntity<Device> linkDevice(@PathVariable Long userId, @PathVariable String deviceId) {
+        return ResponseEntity.ok(deviceService.linkDevice(userId, deviceId));
+    }
+
+    @DeleteMapping("/{deviceId}")
+    public ResponseEntity<Void> unlinkDevice(@PathVariable Long userId, @PathVariable String deviceId) {
+        deviceService.unlinkDevice(userId, deviceId);
+        return ResponseEntity.noContent().build();
+    }
+}
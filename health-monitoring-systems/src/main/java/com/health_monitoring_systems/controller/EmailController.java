@@ -1,10 +1,15 @@
 package com.health_monitoring_systems.controller;
 
 import com.health_monitoring_systems.dto.EmailRequest;
+import com.health_monitoring_systems.dto.EmailStatusResponse;
+import com.health_monitoring_systems.model.EmailOutbox;
 import com.health_monitoring_systems.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+
 @RestController
 @RequestMapping("/api/email")
 @CrossOrigin(origins = "http://localhost:3000")
@@ -14,13 +19,21 @@ public class EmailController {
     private EmailService emailService;
 
     @PostMapping("/send")
-    public void sendEmail(@RequestBody EmailRequest emailRequest) {
-        emailService.sendHealthReport(
+    public ResponseEntity<EmailStatusResponse> sendEmail(@RequestBody EmailRequest emailRequest) {
+        EmailOutbox queued = emailService.sendHealthReport(
             emailRequest.getFrom(),
             emailRequest.getFromName(),
             emailRequest.getTo(),
             emailRequest.getSubject(),
             emailRequest.getBody()
         );
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/email/" + queued.getId()))
+                .body(EmailStatusResponse.from(queued));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<EmailStatusResponse> getEmailStatus(@PathVariable Long id) {
+        return ResponseEntity.ok(EmailStatusResponse.from(emailService.getEmail(id)));
     }
 }
@@ -0,0 +1,75 @@
+package com.health_monitoring_systems.controller;
+
+import com.health_monitoring_systems.service.DataService;
+import com.health_monitoring_systems.service.SensorStreamHub;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * WebSocket flavour of {@code GET /data/stream} for clients without EventSource support
+ * (React Native). Connect to {@code /data/ws?deviceId=...}; every message is one snapshot.
+ */
+@Component
+public class SensorStreamWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String SUBSCRIPTION = "subscription";
+    // The hub keeps at most one frame in flight per subscriber, so the buffer only ever holds it and a ping
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 64 * 1024;
+
+    private final DataService dataService;
+
+    public SensorStreamWebSocketHandler(DataService dataService) {
+        this.dataService = dataService;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession rawSession) {
+        // Frames go out on a sender thread and pings on the scheduler; a raw session must not be written concurrently
+        WebSocketSession session = new ConcurrentWebSocketSessionDecorator(rawSession, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES);
+        SensorStreamHub.Subscription subscription = dataService.subscribe(deviceId(session.getUri()), new SensorStreamHub.FrameSink() {
+            @Override
+            public void send(String frame) throws IOException {
+                session.sendMessage(new TextMessage(frame));
+            }
+
+            @Override
+            public void ping() throws IOException {
+                session.sendMessage(new PingMessage());
+            }
+
+            @Override
+            public void close() {
+                try {
+                    session.close();
+                } catch (IOException ignored) {
+                    // Connection is already gone
+                }
+            }
+        });
+        session.getAttributes().put(SUBSCRIPTION, subscription);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Object subscription = session.getAttributes().get(SUBSCRIPTION);
+        if (subscription instanceof SensorStreamHub.Subscription s) {
+            s.cancel();
+        }
+    }
+
+    private String deviceId(URI uri) {
+        String deviceId = uri == null ? null
+                : UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("deviceId");
+        return deviceId == null || deviceId.isBlank() ? DataController.DEFAULT_DEVICE : deviceId;
+    }
+}
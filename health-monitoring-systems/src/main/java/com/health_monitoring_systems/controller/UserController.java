@@ -1,5 +1,6 @@
 package com.health_monitoring_systems.controller;
 
+import com.health_monitoring_systems.dto.UserProfile;
 import com.health_monitoring_systems.model.User;
 import com.health_monitoring_systems.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,7 +19,7 @@ public class UserController {
     }
 
     @GetMapping("/")
-    public ResponseEntity<User> login (@RequestParam String email, @RequestParam String password){
+    public ResponseEntity<UserProfile> login (@RequestParam String email, @RequestParam String password){
         return ResponseEntity.ok(userService.login(email, password));
     }
 
@@ -28,12 +29,13 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<UserProfile> getUserById(@PathVariable Long id,
+                                                   @RequestParam(defaultValue = "false") boolean summary) {
+        return ResponseEntity.ok(userService.getProfile(id, summary));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
+    public ResponseEntity<UserProfile> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
         return ResponseEntity.ok(userService.updateUser(id, userDetails));
     }
 
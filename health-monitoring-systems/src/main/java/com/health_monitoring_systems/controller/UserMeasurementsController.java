@@ -1,21 +1,84 @@
 package com.health_monitoring_systems.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.health_monitoring_systems.dto.BatchIngestResponse;
+import com.health_monitoring_systems.dto.ImportJobResponse;
+import com.health_monitoring_systems.dto.MeasurementPage;
 import com.health_monitoring_systems.dto.MeasurementRequest;
+import com.health_monitoring_systems.dto.MeasurementChanges;
+import com.health_monitoring_systems.dto.MeasurementStats;
+import com.health_monitoring_systems.dto.PercentileResponse;
+import com.health_monitoring_systems.dto.MeasurementView;
+import com.health_monitoring_systems.dto.RollupPoint;
+import com.health_monitoring_systems.model.MeasurementSketch;
+import com.health_monitoring_systems.model.RollupResolution;
 import com.health_monitoring_systems.model.UserMeasurements;
+import com.health_monitoring_systems.service.IngestAdmission;
+import com.health_monitoring_systems.service.MeasurementExportService;
+import com.health_monitoring_systems.service.MeasurementImportService;
+import com.health_monitoring_systems.service.MeasurementSketchService;
+import com.health_monitoring_systems.service.MeasurementStatsService;
+import com.health_monitoring_systems.service.MeasurementSyncService;
+import com.health_monitoring_systems.service.MeasurementVersions;
 import com.health_monitoring_systems.service.UserMeasurementsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/measurements")
 public class UserMeasurementsController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final UserMeasurementsService measurementsService;
+    private final MeasurementExportService exportService;
+    private final MeasurementImportService importService;
+    private final MeasurementStatsService statsService;
+    private final MeasurementSketchService sketchService;
+    private final MeasurementSyncService syncService;
+    private final MeasurementVersions versions;
+    private final IngestAdmission admission;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchItems;
 
-    public UserMeasurementsController(UserMeasurementsService measurementsService) {
+    public UserMeasurementsController(UserMeasurementsService measurementsService,
+                                      MeasurementExportService exportService,
+                                      MeasurementImportService importService,
+                                      MeasurementStatsService statsService,
+                                      MeasurementSketchService sketchService,
+                                      MeasurementSyncService syncService,
+                                      MeasurementVersions versions,
+                                      IngestAdmission admission,
+                                      ObjectMapper objectMapper,
+                                      @Value("${app.measurements.batch.max-items:10000}") int maxBatchItems) {
         this.measurementsService = measurementsService;
+        this.exportService = exportService;
+        this.importService = importService;
+        this.statsService = statsService;
+        this.sketchService = sketchService;
+        this.syncService = syncService;
+        this.versions = versions;
+        this.admission = admission;
+        this.objectMapper = objectMapper;
+        this.maxBatchItems = maxBatchItems;
     }
 
     @GetMapping("/{id}")
@@ -23,19 +86,208 @@ public class UserMeasurementsController {
         return ResponseEntity.ok(measurementsService.getMeasurement(id));
     }
 
+    // The list endpoints below answer If-None-Match from the in-memory version, before any query
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<UserMeasurements>> getMeasurementsByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<MeasurementView>> getMeasurementsByUser(@PathVariable Long userId, WebRequest request) {
+        if (request.checkNotModified(versions.etag(userId))) {
+            return null;
+        }
         return ResponseEntity.ok(measurementsService.getMeasurementsByUser(userId));
     }
 
     @GetMapping("/all-by-user")
-    public ResponseEntity<List<UserMeasurements>> getMeasurementsByUserEmail(@RequestParam String email) {
+    public ResponseEntity<List<MeasurementView>> getMeasurementsByUserEmail(@RequestParam String email, WebRequest request) {
+        if (request.checkNotModified(versions.etag(measurementsService.getUserIdByEmail(email)))) {
+            return null;
+        }
         return ResponseEntity.ok(measurementsService.getAllByUserEmail(email));
     }
 
+    @GetMapping("/history")
+    public ResponseEntity<MeasurementPage> getHistory(@RequestParam String email,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "100") int size,
+                                                      WebRequest request) {
+        if (request.checkNotModified(versions.etag(measurementsService.getUserIdByEmail(email)))) {
+            return null;
+        }
+        LocalDateTime start = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = to != null ? to : LocalDateTime.now().plusDays(1);
+        return ResponseEntity.ok(measurementsService.getHistoryPage(email, start, end, cursor, size));
+    }
+
+    /**
+     * Measurements added or deleted since {@code since} (the cursor from the previous sync); without
+     * it, the full history oldest first. Keep calling with the returned cursor while
+     * {@code hasMore} is set. Recent rows and deletes can be sent again, so apply them by id.
+     * A cursor older than the tombstone retention gets 410 Gone.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<MeasurementChanges> getChanges(@RequestParam String email,
+                                                         @RequestParam(required = false) String since,
+                                                         WebRequest request) {
+        Long userId = measurementsService.getUserIdByEmail(email);
+        if (request.checkNotModified(versions.etag(userId))) {
+            return null;
+        }
+        return ResponseEntity.ok(syncService.getChanges(userId, since));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<?> exportMeasurements(@RequestParam String email,
+                                                @RequestParam(defaultValue = "csv") String format,
+                                                @RequestParam(defaultValue = "false") boolean gzip,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        MeasurementExportService.Format exportFormat = MeasurementExportService.Format.parse(format);
+        if (exportFormat == null) {
+            return ResponseEntity.badRequest().body("Unknown format " + format + ", expected csv or ndjson");
+        }
+        // Resolve the user before streaming starts so an unknown email still gets a proper error
+        Long userId = measurementsService.getUserIdByEmail(email);
+        LocalDateTime start = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime end = to != null ? to : LocalDateTime.now().plusDays(1);
+        boolean csv = exportFormat == MeasurementExportService.Format.CSV;
+
+        // Runs on the MVC async executor, not the request thread
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 16 * 1024) : out;
+            exportService.export(userId, start, end, exportFormat, target);
+            if (target instanceof GZIPOutputStream gz) {
+                gz.finish();
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.parseMediaType(APPLICATION_NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"measurements." + (csv ? "csv" : "ndjson") + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Starts a bulk import of a CSV or NDJSON file (optionally sent with Content-Encoding: gzip).
+     * Rows without a userEmail belong to {@code email}. Poll the returned Location for progress.
+     */
+    @PostMapping("/imports")
+    public ResponseEntity<?> importMeasurements(InputStream body,
+                                                @RequestParam(defaultValue = "csv") String format,
+                                                @RequestParam(required = false) String email,
+                                                @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                                @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength) throws IOException {
+        MeasurementExportService.Format importFormat = MeasurementExportService.Format.parse(format);
+        if (importFormat == null) {
+            return ResponseEntity.badRequest().body("Unknown format " + format + ", expected csv or ndjson");
+        }
+        if (contentLength != null && contentLength > importService.getMaxBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("Import is larger than " + importService.getMaxBytes() + " bytes");
+        }
+        boolean gzip = "gzip".equalsIgnoreCase(contentEncoding);
+        ImportJobResponse job = ImportJobResponse.from(importService.startImport(body, gzip, importFormat, email));
+        return ResponseEntity.accepted()
+                .location(URI.create("/measurements/imports/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/imports/{id}")
+    public ResponseEntity<ImportJobResponse> getImport(@PathVariable Long id) {
+        return ResponseEntity.ok(ImportJobResponse.from(importService.getImport(id)));
+    }
+
+    @PostMapping("/imports/{id}/resume")
+    public ResponseEntity<ImportJobResponse> resumeImport(@PathVariable Long id) {
+        return ResponseEntity.accepted().body(ImportJobResponse.from(importService.resumeImport(id)));
+    }
+
+    @GetMapping("/rollups")
+    public ResponseEntity<List<RollupPoint>> getRollups(@RequestParam String email,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                        @RequestParam(defaultValue = "500") int maxPoints) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        return ResponseEntity.ok(measurementsService.getRollups(email, start, end, maxPoints));
+    }
+
+    /**
+     * Min/max/mean/stddev and trend per vital over the range (default: last 30 days), optionally
+     * also per MINUTE, HOUR or DAY bucket.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<MeasurementStats> getStats(@RequestParam String email,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                     @RequestParam(required = false) RollupResolution bucket) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        return ResponseEntity.ok(statsService.getStats(measurementsService.getUserIdByEmail(email), start, end, bucket));
+    }
+
+    /**
+     * Percentiles of one vital over whole days (default: the last 90), e.g.
+     * {@code ?vital=HEART_RATE&q=0.5,0.95}. Values are exact to the vital's histogram step.
+     */
+    @GetMapping("/percentiles")
+    public ResponseEntity<PercentileResponse> getPercentiles(@RequestParam String email,
+                                                             @RequestParam MeasurementSketch.Vital vital,
+                                                             @RequestParam(defaultValue = "0.5,0.9,0.95,0.99") double[] q,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(89);
+        return ResponseEntity.ok(sketchService.getPercentiles(measurementsService.getUserIdByEmail(email), vital, start, end, q));
+    }
+
     @PostMapping("/")
     public void saveMeasurement(@RequestBody MeasurementRequest measurementRequest) {
-        measurementsService.saveMeasurement(measurementRequest);
+        admission.acquireUser(measurementRequest.getUserEmail());
+        admission.enter();
+        try {
+            admission.requireAdmission(IngestAdmission.Priority.NORMAL);
+            measurementsService.saveMeasurement(measurementRequest);
+        } finally {
+            admission.exit();
+        }
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchIngestResponse> saveMeasurements(@RequestBody List<MeasurementRequest> measurementRequests) {
+        return batchResponse(measurementRequests);
+    }
+
+    @PostMapping(value = "/batch", consumes = APPLICATION_NDJSON)
+    public ResponseEntity<BatchIngestResponse> saveMeasurementsNdjson(InputStream body) throws IOException {
+        List<MeasurementRequest> measurementRequests = new ArrayList<>();
+        try (MappingIterator<MeasurementRequest> lines = objectMapper.readerFor(MeasurementRequest.class).readValues(body)) {
+            while (lines.hasNext() && measurementRequests.size() <= maxBatchItems) {
+                measurementRequests.add(lines.next());
+            }
+        }
+        return batchResponse(measurementRequests);
+    }
+
+    private ResponseEntity<BatchIngestResponse> batchResponse(List<MeasurementRequest> measurementRequests) {
+        if (measurementRequests.size() > maxBatchItems) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        // One charge per request for each user in it; batches are normally a single user's backlog
+        admission.acquireUsers(measurementRequests.stream().map(MeasurementRequest::getUserEmail).distinct().toList());
+        BatchIngestResponse response;
+        admission.enter();
+        try {
+            // Synced backlogs are retried by the client, so they are shed before live posts
+            admission.requireAdmission(IngestAdmission.Priority.REDUNDANT);
+            response = measurementsService.saveMeasurements(measurementRequests);
+        } finally {
+            admission.exit();
+        }
+        boolean queuedOnly = "ASYNC".equals(response.getDurability());
+        return ResponseEntity.status(queuedOnly ? HttpStatus.ACCEPTED : HttpStatus.OK).body(response);
     }
 
     @DeleteMapping("/{id}")
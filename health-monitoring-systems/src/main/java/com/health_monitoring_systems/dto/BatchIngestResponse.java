@@ -0,0 +1,37 @@
+package com.health_monitoring_systems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BatchIngestResponse {
+    public enum Status { ACCEPTED, PERSISTED, REJECTED, FAILED }
+
+    private String durability;
+    private int accepted;
+    private int rejected;
+    private List<ItemResult> results = new ArrayList<>();
+
+    public void add(int index, Status status, String error) {
+        results.add(new ItemResult(index, status, error));
+        if (status == Status.REJECTED || status == Status.FAILED) {
+            rejected++;
+        } else {
+            accepted++;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private Status status;
+        private String error;
+    }
+}
@@ -0,0 +1,16 @@
+package com.health_monitoring_systems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeviceOwner {
+    private Long userId;
+    private String email;
+    private String name;
+    private String doctorName;
+    private String doctorEmail;
+}
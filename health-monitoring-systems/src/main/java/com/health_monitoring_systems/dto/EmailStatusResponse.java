@@ -0,0 +1,27 @@
+package com.health_monitoring_systems.dto;
+
+import com.health_monitoring_systems.model.EmailOutbox;
+import com.health_monitoring_systems.model.EmailStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmailStatusResponse {
+    private Long id;
+    private EmailStatus status;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime sentAt;
+
+    public static EmailStatusResponse from(EmailOutbox email) {
+        return new EmailStatusResponse(email.getId(), email.getStatus(), email.getAttempts(), email.getLastError(),
+                email.getCreatedAt(), email.getNextAttemptAt(), email.getSentAt());
+    }
+}
@@ -0,0 +1,42 @@
+package com.health_monitoring_systems.dto;
+
+import com.health_monitoring_systems.model.ImportStatus;
+import com.health_monitoring_systems.model.MeasurementImport;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportJobResponse {
+    private Long id;
+    private ImportStatus status;
+    private long rowsImported;
+    private long rowsRejected;
+    private long bytesProcessed;
+    private long totalBytes;
+    private double percentComplete;
+    private long rowsPerSecond;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public static ImportJobResponse from(MeasurementImport job) {
+        double percent = job.getTotalBytes() == 0 ? 0
+                : Math.round(1000.0 * job.getByteCheckpoint() / job.getTotalBytes()) / 10.0;
+        long rate = 0;
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long millis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+            rate = job.getRowsImported() * 1000 / millis;
+        }
+        return new ImportJobResponse(job.getId(), job.getStatus(), job.getRowsImported(), job.getRowsRejected(),
+                job.getByteCheckpoint(), job.getTotalBytes(), percent, rate, job.getLastError(),
+                job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt());
+    }
+}
@@ -0,0 +1,21 @@
+package com.health_monitoring_systems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MeasurementChanges {
+    // Oldest first by id; may repeat rows from the previous sync, so apply as upserts by id
+    private List<MeasurementView> added;
+    // Apply after added: a row can be added and deleted within the same sync
+    private List<Long> deleted;
+    // Pass back as ?since= on the next sync
+    private String cursor;
+    // More added rows are waiting; sync again straight away with the new cursor
+    private boolean hasMore;
+}
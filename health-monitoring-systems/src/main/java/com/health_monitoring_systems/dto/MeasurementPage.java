@@ -0,0 +1,16 @@
+package com.health_monitoring_systems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MeasurementPage {
+    private List<MeasurementView> items;
+    // Pass back as ?cursor= to get the next (older) page; null on the last page
+    private String nextCursor;
+}
@@ -2,6 +2,8 @@ package com.health_monitoring_systems.dto;
 
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 public class MeasurementRequest {
     private String userEmail;
@@ -10,4 +12,7 @@ public class MeasurementRequest {
     private int oxygen;
     private double humidity;
     private double roomTemperature;
+    // Optional; defaults to the time the server receives the measurement, which also replaces
+    // dates more than app.measurements.max-clock-ahead-seconds in the future
+    private LocalDateTime dateOfMeasurement;
 }
@@ -0,0 +1,59 @@
+package com.health_monitoring_systems.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.health_monitoring_systems.model.RollupResolution;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Summary statistics of a user's measurements over a time range, optionally broken down
+ * into buckets. Vital stats are {@code null} when the range holds no rows.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MeasurementStats {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private RollupResolution resolution;
+    private long count;
+    private VitalStats temperature;
+    private VitalStats heartRate;
+    private VitalStats oxygen;
+    private VitalStats humidity;
+    private VitalStats roomTemperature;
+    private List<Bucket> buckets;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class VitalStats {
+        private double min;
+        private double max;
+        private double mean;
+        /** Population standard deviation. */
+        private double stddev;
+        /** Least-squares slope in units per hour; {@code null} with fewer than two distinct times. */
+        private Double trendPerHour;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Bucket {
+        private LocalDateTime start;
+        private long count;
+        private VitalStats temperature;
+        private VitalStats heartRate;
+        private VitalStats oxygen;
+        private VitalStats humidity;
+        private VitalStats roomTemperature;
+    }
+}
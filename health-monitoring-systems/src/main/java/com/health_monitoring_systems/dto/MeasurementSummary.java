@@ -0,0 +1,13 @@
+package com.health_monitoring_systems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MeasurementSummary {
+    private long count;
+    private MeasurementView latest;
+}
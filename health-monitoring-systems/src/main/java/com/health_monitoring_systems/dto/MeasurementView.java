@@ -0,0 +1,24 @@
+package com.health_monitoring_systems.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only measurement row without the owning user, selected straight into this class so
+ * history reads never hydrate {@code UserMeasurements} entities.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MeasurementView {
+    private Long id;
+    private double temperature;
+    private int heartRate;
+    private int oxygen;
+    private double humidity;
+    private double roomTemperature;
+    private LocalDateTime dateOfMeasurement;
+}
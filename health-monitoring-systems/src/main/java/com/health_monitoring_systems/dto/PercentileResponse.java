@@ -0,0 +1,29 @@
+package com.health_monitoring_systems.dto;
+
+import com.health_monitoring_systems.model.MeasurementSketch;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PercentileResponse {
+    private MeasurementSketch.Vital vital;
+    private LocalDate from;
+    private LocalDate to;
+    private long count;
+    private List<Percentile> percentiles;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Percentile {
+        private double quantile;
+        /** {@code null} when the range holds no measurements. */
+        private Double value;
+    }
+}
@@ -0,0 +1,42 @@
+package com.health_monitoring_systems.dto;
+
+import com.health_monitoring_systems.model.MeasurementRollup;
+import com.health_monitoring_systems.model.RollupResolution;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupPoint {
+    private LocalDateTime bucketStart;
+    private RollupResolution resolution;
+    private long count;
+    private Stat temperature;
+    private Stat heartRate;
+    private Stat oxygen;
+    private Stat humidity;
+    private Stat roomTemperature;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Stat {
+        private double min;
+        private double max;
+        private double avg;
+    }
+
+    public static RollupPoint from(MeasurementRollup r) {
+        long n = Math.max(1, r.getSampleCount());
+        return new RollupPoint(r.getBucketStart(), r.getResolution(), r.getSampleCount(),
+                new Stat(r.getTemperatureMin(), r.getTemperatureMax(), r.getTemperatureSum() / n),
+                new Stat(r.getHeartRateMin(), r.getHeartRateMax(), r.getHeartRateSum() / n),
+                new Stat(r.getOxygenMin(), r.getOxygenMax(), r.getOxygenSum() / n),
+                new Stat(r.getHumidityMin(), r.getHumidityMax(), r.getHumiditySum() / n),
+                new Stat(r.getRoomTemperatureMin(), r.getRoomTemperatureMax(), r.getRoomTemperatureSum() / n));
+    }
+}
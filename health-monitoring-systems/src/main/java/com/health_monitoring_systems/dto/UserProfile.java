@@ -0,0 +1,58 @@
+package com.health_monitoring_systems.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.health_monitoring_systems.model.DoctorDetails;
+import com.health_monitoring_systems.model.Gender;
+import com.health_monitoring_systems.model.User;
+import com.health_monitoring_systems.model.UserDetails;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What the app needs to show a user's profile: the user, their body details and doctor, and
+ * optionally a small measurement summary. Never includes the password hash or the measurement
+ * history, so its size does not grow with the user's data.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserProfile {
+    private Long id;
+    private String name;
+    private Integer age;
+    private String email;
+    private Details userDetails;
+    private Doctor doctor;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private MeasurementSummary summary;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Details {
+        private Long id;
+        private Double height;
+        private Double weight;
+        private Gender gender;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Doctor {
+        private Long id;
+        private String doctorName;
+        private String doctorEmail;
+        private String doctorPhone;
+    }
+
+    public static UserProfile from(User user) {
+        UserDetails details = user.getUserDetails();
+        DoctorDetails doctor = user.getDoctor();
+        return new UserProfile(user.getId(), user.getName(), user.getAge(), user.getEmail(),
+                details == null ? null : new Details(details.getId(), details.getHeight(), details.getWeight(), details.getGender()),
+                doctor == null ? null : new Doctor(doctor.getId(), doctor.getDoctorName(), doctor.getDoctorEmail(), doctor.getDoctorPhone()),
+                null);
+    }
+}
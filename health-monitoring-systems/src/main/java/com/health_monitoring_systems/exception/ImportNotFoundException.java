@@ -0,0 +1,7 @@
+package com.health_monitoring_systems.exception;
+
+public class ImportNotFoundException extends RuntimeException {
+    public ImportNotFoundException(String message) {
+        super(message);
+    }
+}
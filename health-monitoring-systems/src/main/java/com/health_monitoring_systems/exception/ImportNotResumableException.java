@@ -0,0 +1,7 @@
+package com.health_monitoring_systems.exception;
+
+public class ImportNotResumableException extends RuntimeException {
+    public ImportNotResumableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.health_monitoring_systems.exception;
+
+public class ImportTooLargeException extends RuntimeException {
+    public ImportTooLargeException(String message) {
+        super(message);
+    }
+}
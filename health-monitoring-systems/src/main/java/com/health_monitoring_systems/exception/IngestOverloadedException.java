@@ -0,0 +1,13 @@
+package com.health_monitoring_systems.exception;
+
+import lombok.Getter;
+
+@Getter
+public class IngestOverloadedException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public IngestOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.health_monitoring_systems.exception;
+
+public class SyncCursorExpiredException extends RuntimeException {
+    public SyncCursorExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,30 @@
+package com.health_monitoring_systems.ingest;
+
+import com.health_monitoring_systems.model.SensorData;
+import lombok.Getter;
+
+/**
+ * Mutable decode target for {@link SensorFrameCodec}. One instance is reused for every frame
+ * of a batch, so nothing here may be kept after the frame has been handed on.
+ */
+@Getter
+public class SensorFrame {
+    private String deviceId;
+    private int bootId;
+    private long sequence;
+    private long timestamp;
+    private final SensorData data = new SensorData();
+
+    void set(String deviceId, int bootId, long sequence, long timestamp,
+             float temperature, float humidity, float bodyTemperature, float bpm, float spo2) {
+        this.deviceId = deviceId;
+        this.bootId = bootId;
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        data.setTemperature(temperature);
+        data.setHumidity(humidity);
+        data.setBodyTemperature(bodyTemperature);
+        data.setBpm(bpm);
+        data.setSpo2(spo2);
+    }
+}
@@ -0,0 +1,136 @@
+package com.health_monitoring_systems.ingest;
+
+import com.health_monitoring_systems.model.SensorData;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed-layout binary encoding of one sensor sample, little-endian like the ESP32:
+ *
+ * <pre>
+ * offset size field
+ *  0     1   magic 0xA5
+ *  1     1   version (1)
+ *  2     2   boot id (unsigned), random per power-up, 0 if the device sends none
+ *  4     16  device id, ASCII, NUL padded
+ *  20    4   sequence (unsigned)
+ *  24    8   device timestamp in epoch millis, 0 if the device has no clock
+ *  32    2   room temperature, signed, 0.01 C
+ *  34    2   humidity, unsigned, 0.01 %
+ *  36    2   body temperature, signed, 0.01 C
+ *  38    2   bpm, unsigned, 0.1
+ *  40    2   spo2, unsigned, 0.1 %
+ * </pre>
+ *
+ * A request body may carry several frames back to back. Decoding allocates nothing once a
+ * device id has been seen, because id strings are interned in a small lock-free table.
+ */
+public final class SensorFrameCodec {
+
+    public static final String MEDIA_TYPE = "application/vnd.health-monitor.sensor-frame";
+    public static final int FRAME_SIZE = 42;
+    public static final int DEVICE_ID_SIZE = 16;
+
+    private static final byte MAGIC = (byte) 0xA5;
+    private static final byte VERSION = 1;
+    private static final int ID_TABLE_SIZE = 4096;
+    private static final String[] DEVICE_IDS = new String[ID_TABLE_SIZE];
+
+    private SensorFrameCodec() {
+    }
+
+    /**
+     * Decodes the frame at the buffer's position into {@code into} and advances the position.
+     *
+     * @throws IllegalArgumentException if fewer than {@link #FRAME_SIZE} bytes remain or the
+     *                                  header is not recognised
+     */
+    public static void decode(ByteBuffer buffer, SensorFrame into) {
+        if (buffer.remaining() < FRAME_SIZE) {
+            throw new IllegalArgumentException("Truncated sensor frame: " + buffer.remaining() + " bytes");
+        }
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int start = buffer.position();
+            if (buffer.get(start) != MAGIC || buffer.get(start + 1) != VERSION) {
+                throw new IllegalArgumentException("Unknown sensor frame header");
+            }
+            int bootId = buffer.getShort(start + 2) & 0xFFFF;
+            String deviceId = deviceId(buffer, start + 4);
+            long sequence = buffer.getInt(start + 20) & 0xFFFFFFFFL;
+            long timestamp = buffer.getLong(start + 24);
+            float temperature = buffer.getShort(start + 32) / 100f;
+            float humidity = (buffer.getShort(start + 34) & 0xFFFF) / 100f;
+            float bodyTemperature = buffer.getShort(start + 36) / 100f;
+            float bpm = (buffer.getShort(start + 38) & 0xFFFF) / 10f;
+            float spo2 = (buffer.getShort(start + 40) & 0xFFFF) / 10f;
+            into.set(deviceId, bootId, sequence, timestamp, temperature, humidity, bodyTemperature, bpm, spo2);
+            buffer.position(start + FRAME_SIZE);
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    /**
+     * Writes one frame at the buffer's position. Used by device simulators and tests.
+     */
+    public static void encode(ByteBuffer buffer, String deviceId, int bootId, long sequence, long timestamp, SensorData data) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            buffer.put(MAGIC).put(VERSION).putShort((short) bootId);
+            for (int i = 0; i < DEVICE_ID_SIZE; i++) {
+                buffer.put(i < deviceId.length() ? (byte) deviceId.charAt(i) : 0);
+            }
+            buffer.putInt((int) sequence)
+                    .putLong(timestamp)
+                    .putShort((short) Math.round(data.getTemperature() * 100))
+                    .putShort((short) Math.round(data.getHumidity() * 100))
+                    .putShort((short) Math.round(data.getBodyTemperature() * 100))
+                    .putShort((short) Math.round(data.getBpm() * 10))
+                    .putShort((short) Math.round(data.getSpo2() * 10));
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    private static String deviceId(ByteBuffer buffer, int offset) {
+        int length = 0;
+        int hash = 0;
+        while (length < DEVICE_ID_SIZE) {
+            byte b = buffer.get(offset + length);
+            if (b == 0) {
+                break;
+            }
+            hash = 31 * hash + b;
+            length++;
+        }
+        int slot = (hash ^ (hash >>> 16)) & (ID_TABLE_SIZE - 1);
+        String cached = DEVICE_IDS[slot];
+        if (cached != null && matches(cached, buffer, offset, length)) {
+            return cached;
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (buffer.get(offset + i) & 0xFF);
+        }
+        // Racy publish is fine: Strings are immutable and a lost write only costs a later miss
+        String id = new String(chars);
+        DEVICE_IDS[slot] = id;
+        return id;
+    }
+
+    private static boolean matches(String cached, ByteBuffer buffer, int offset, int length) {
+        if (cached.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (cached.charAt(i) != (char) (buffer.get(offset + i) & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,313 @@
+package com.health_monitoring_systems.ingest;
+
+import com.health_monitoring_systems.config.WorkerThreads;
+import com.health_monitoring_systems.service.DataService;
+import com.health_monitoring_systems.service.IngestAdmission;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional TCP listener for devices that keep one connection open and stream
+ * {@link SensorFrameCodec} frames back to back, instead of opening an HTTP request per sample.
+ * Frames skip the servlet stack and security filters and go straight to
+ * {@link DataService#receiveFrames}, so they are published, checked and recorded exactly like
+ * POST /data. A few selector loops serve every connection.
+ * <p>
+ * A connection is a device session: frames without a device id belong to the first id the
+ * connection sent, which is also the key for the per-device rate limit. The protocol is one-way;
+ * over-limit or shed frames are dropped and counted, and a connection that sends a malformed
+ * frame or stays silent past the idle timeout is closed.
+ */
+@Component
+@ConditionalOnProperty(name = "app.ingest.tcp.enabled", havingValue = "true")
+public class SensorIngestServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorIngestServer.class);
+
+    // Firmware that predates device ids keeps writing to a shared slot, as on POST /data
+    private static final String DEFAULT_DEVICE = "default";
+
+    private final DataService dataService;
+    private final IngestAdmission admission;
+    private final String bindAddress;
+    private final int port;
+    private final int maxSessions;
+    private final int bufferFrames;
+    private final long idleTimeoutMillis;
+    private final EventLoop[] loops;
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final Counter ingestedFrames;
+    private final Counter droppedFrames;
+    private final Counter malformed;
+    private ServerSocketChannel server;
+    // Only touched by the loop that owns the server socket
+    private int nextLoop;
+    private volatile boolean running;
+
+    public SensorIngestServer(DataService dataService,
+                              IngestAdmission admission,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.ingest.tcp.bind-address:0.0.0.0}") String bindAddress,
+                              @Value("${app.ingest.tcp.port:7070}") int port,
+                              @Value("${app.ingest.tcp.event-loops:2}") int eventLoops,
+                              @Value("${app.ingest.tcp.max-sessions:50000}") int maxSessions,
+                              @Value("${app.ingest.tcp.buffer-frames:32}") int bufferFrames,
+                              @Value("${app.ingest.tcp.idle-timeout-seconds:60}") long idleTimeoutSeconds) {
+        this.dataService = dataService;
+        this.admission = admission;
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.maxSessions = maxSessions;
+        this.bufferFrames = Math.max(1, bufferFrames);
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        this.loops = new EventLoop[Math.max(1, eventLoops)];
+
+        Gauge.builder("ingest.tcp.sessions", sessions, AtomicInteger::get)
+                .description("Open device connections on the TCP ingest listener")
+                .register(meterRegistry);
+        this.ingestedFrames = meterRegistry.counter("ingest.tcp.frames", "outcome", "ingested");
+        this.droppedFrames = meterRegistry.counter("ingest.tcp.frames", "outcome", "dropped");
+        this.malformed = meterRegistry.counter("ingest.tcp.malformed");
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(bindAddress, port), 1024);
+        server.configureBlocking(false);
+        running = true;
+        // Selector loops spend their time blocked in select(), so they stay platform threads
+        ThreadFactory threads = WorkerThreads.platform().factory("sensor-ingest");
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(Selector.open());
+        }
+        server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        for (EventLoop loop : loops) {
+            loop.thread = threads.newThread(loop);
+            loop.thread.start();
+        }
+        logger.info("Sensor TCP ingest listening on {}", server.getLocalAddress());
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        running = false;
+        for (EventLoop loop : loops) {
+            loop.selector.wakeup();
+        }
+        for (EventLoop loop : loops) {
+            loop.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        server.close();
+    }
+
+    /** The bound port, which differs from the configured one when that is 0. */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.get();
+    }
+
+    private void accept() {
+        SocketChannel channel;
+        try {
+            while ((channel = server.accept()) != null) {
+                if (sessions.get() >= maxSessions) {
+                    channel.close();
+                    continue;
+                }
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                sessions.incrementAndGet();
+                // Round-robin the new session onto a loop; that loop registers it on its own thread
+                EventLoop loop = loops[nextLoop];
+                nextLoop = (nextLoop + 1) % loops.length;
+                loop.pending.add(channel);
+                loop.selector.wakeup();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to accept sensor connection", e);
+        }
+    }
+
+    private final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+        private final SensorFrame probe = new SensorFrame();
+        private Thread thread;
+
+        private EventLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        @Override
+        public void run() {
+            long lastSweep = System.currentTimeMillis();
+            while (running) {
+                try {
+                    selector.select(1000);
+                    registerPending();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            read(key);
+                        }
+                    }
+                    long now = System.currentTimeMillis();
+                    if (now - lastSweep >= 1000) {
+                        closeIdle(now);
+                        lastSweep = now;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Sensor ingest loop error", e);
+                }
+            }
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Session) {
+                    close(key);
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // Shutting down
+            }
+        }
+
+        private void registerPending() {
+            SocketChannel channel;
+            while ((channel = pending.poll()) != null) {
+                try {
+                    channel.register(selector, SelectionKey.OP_READ, new Session(bufferFrames));
+                } catch (IOException e) {
+                    sessions.decrementAndGet();
+                    closeQuietly(channel);
+                }
+            }
+        }
+
+        private void read(SelectionKey key) {
+            Session session = (Session) key.attachment();
+            ByteBuffer buffer = session.buffer;
+            int read;
+            try {
+                read = ((SocketChannel) key.channel()).read(buffer);
+            } catch (IOException e) {
+                close(key);
+                return;
+            }
+            if (read < 0) {
+                close(key);
+                return;
+            }
+            session.lastRead = System.currentTimeMillis();
+            buffer.flip();
+            int frames = buffer.remaining() / SensorFrameCodec.FRAME_SIZE;
+            if (frames > 0) {
+                int length = frames * SensorFrameCodec.FRAME_SIZE;
+                ByteBuffer whole = buffer.slice(buffer.position(), length);
+                try {
+                    ingest(session, whole, frames);
+                } catch (IllegalArgumentException e) {
+                    // Out of step with the frame boundaries; nothing after this can be trusted
+                    malformed.increment();
+                    close(key);
+                    return;
+                }
+                buffer.position(buffer.position() + length);
+            }
+            buffer.compact();
+        }
+
+        private void ingest(Session session, ByteBuffer frames, int count) {
+            if (session.deviceId == null) {
+                // Validates the header before anything is charged to the device
+                SensorFrameCodec.decode(frames.duplicate(), probe);
+                session.deviceId = probe.getDeviceId().isEmpty() ? DEFAULT_DEVICE : probe.getDeviceId();
+            }
+            if (!admission.tryAcquireDevice(session.deviceId, count)) {
+                droppedFrames.increment(count);
+                return;
+            }
+            int ingested;
+            admission.enter();
+            try {
+                ingested = dataService.receiveFrames(frames, session.deviceId);
+            } finally {
+                admission.exit();
+            }
+            ingestedFrames.increment(ingested);
+            if (ingested < count) {
+                droppedFrames.increment(count - ingested);
+            }
+        }
+
+        private void closeIdle(long now) {
+            for (SelectionKey key : selector.keys()) {
+                // Keys closed earlier in this pass stay in keys() until the next select
+                if (key.isValid() && key.attachment() instanceof Session session && now - session.lastRead > idleTimeoutMillis) {
+                    close(key);
+                }
+            }
+        }
+
+        private void close(SelectionKey key) {
+            if (!key.isValid()) {
+                return; // already closed; the session was counted out then
+            }
+            key.cancel();
+            closeQuietly(key.channel());
+            sessions.decrementAndGet();
+        }
+    }
+
+    private static void closeQuietly(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Already gone
+        }
+    }
+
+    private static final class Session {
+        private final ByteBuffer buffer;
+        private String deviceId;
+        private long lastRead = System.currentTimeMillis();
+
+        private Session(int frames) {
+            this.buffer = ByteBuffer.allocate(frames * SensorFrameCodec.FRAME_SIZE);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.health_monitoring_systems.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Links a sensor's device id (the {@code deviceId} it posts to /data with) to the patient wearing it.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "devices")
+public class Device {
+    @Id
+    @Column(length = 64)
+    private String deviceId;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    private User owner;
+
+    private LocalDateTime linkedAt;
+}
@@ -0,0 +1,43 @@
+package com.health_monitoring_systems.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An email accepted by the API and waiting to be (or already) delivered by the outbox workers.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at")
+})
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String replyTo;
+    private String fromName;
+    private String toAddress;
+    private String subject;
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EmailStatus status = EmailStatus.PENDING;
+    private int attempts;
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime claimedAt;
+    @Column(length = 1000)
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,5 @@
+package com.health_monitoring_systems.model;
+
+public enum EmailStatus {
+    PENDING, SENDING, SENT, FAILED
+}
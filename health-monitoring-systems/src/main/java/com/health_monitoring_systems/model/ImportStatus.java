@@ -0,0 +1,8 @@
+package com.health_monitoring_systems.model;
+
+public enum ImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,46 @@
+package com.health_monitoring_systems.model;
+
+import com.health_monitoring_systems.service.MeasurementExportService;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bulk import of measurements from an uploaded file. The byte and line checkpoints are
+ * committed together with each batch of rows, so an interrupted import resumes exactly after
+ * the last committed batch.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "measurement_imports")
+public class MeasurementImport {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportStatus status = ImportStatus.QUEUED;
+
+    @Enumerated(EnumType.STRING)
+    private MeasurementExportService.Format format;
+
+    // Used for rows that carry no userEmail of their own
+    private String defaultEmail;
+    private String filePath;
+    private long totalBytes;
+    private long byteCheckpoint;
+    private long lineCheckpoint;
+    private long rowsImported;
+    private long rowsRejected;
+    @Column(length = 1000)
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,48 @@
+package com.health_monitoring_systems.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated vitals for one user over one minute, hour or day. Averages are derived from
+ * the stored sums so buckets can be merged exactly.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "measurement_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_bucket", columnNames = {"user_id", "resolution", "bucket_start"}))
+public class MeasurementRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private RollupResolution resolution;
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    private long sampleCount;
+
+    private double temperatureMin;
+    private double temperatureMax;
+    private double temperatureSum;
+    private double heartRateMin;
+    private double heartRateMax;
+    private double heartRateSum;
+    private double oxygenMin;
+    private double oxygenMax;
+    private double oxygenSum;
+    private double humidityMin;
+    private double humidityMax;
+    private double humiditySum;
+    private double roomTemperatureMin;
+    private double roomTemperatureMax;
+    private double roomTemperatureSum;
+}
@@ -0,0 +1,77 @@
+package com.health_monitoring_systems.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * Distribution of one vital for one user over one day, as a fixed-resolution histogram
+ * encoded by {@code VitalHistogram}. Day sketches merge by adding counts, so percentiles over
+ * any run of days come from the sketches alone.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "measurement_sketches",
+        uniqueConstraints = @UniqueConstraint(name = "uk_sketch_day", columnNames = {"user_id", "vital", "bucket_day"}))
+public class MeasurementSketch {
+
+    /**
+     * Sketched vitals with the range and resolution of their histograms. Values outside the
+     * range are counted in the first or last bin.
+     */
+    public enum Vital {
+        TEMPERATURE("temperature", -40, 85, 0.1),
+        HEART_RATE("heart_rate", 0, 300, 1),
+        OXYGEN("oxygen", 0, 100, 1),
+        HUMIDITY("humidity", 0, 100, 0.5),
+        ROOM_TEMPERATURE("room_temperature", -40, 85, 0.1);
+
+        private final String column;
+        private final double min;
+        private final double step;
+        private final int bins;
+
+        Vital(String column, double min, double max, double step) {
+            this.column = column;
+            this.min = min;
+            this.step = step;
+            this.bins = (int) Math.round((max - min) / step) + 1;
+        }
+
+        public String column() {
+            return column;
+        }
+
+        public int bins() {
+            return bins;
+        }
+
+        public int bin(double value) {
+            long bin = Math.round((value - min) / step);
+            return (int) Math.max(0, Math.min(bins - 1, bin));
+        }
+
+        public double value(int bin) {
+            return Math.round((min + bin * step) * 1000) / 1000.0;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Vital vital;
+    @Column(name = "bucket_day", nullable = false)
+    private LocalDate bucketDay;
+    private long sampleCount;
+    @Column(length = 16384)
+    private byte[] bins;
+}
@@ -0,0 +1,34 @@
+package com.health_monitoring_systems.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Record of a deleted measurement, so clients syncing with {@code GET /measurements/changes}
+ * learn about deletions. Kept for a limited time; older sync cursors must resync in full.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "measurement_tombstones", indexes = {
+        @Index(name = "idx_tombstones_user_id", columnList = "user_id, id"),
+        @Index(name = "idx_tombstones_deleted_at", columnList = "deleted_at")
+})
+public class MeasurementTombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    @Column(nullable = false)
+    private Long measurementId;
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,25 @@
+package com.health_monitoring_systems.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Highest {@code user_measurements.id} already folded in by a catch-up job (rollups, sketches),
+ * one row per job.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "rollup_checkpoints")
+public class RollupCheckpoint {
+    @Id
+    private String name;
+    private long lastMeasurementId;
+}
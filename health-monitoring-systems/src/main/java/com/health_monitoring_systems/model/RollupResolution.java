@@ -0,0 +1,34 @@
+package com.health_monitoring_systems.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupResolution {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupResolution(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public LocalDateTime bucketEnd(LocalDateTime bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+
+    public long bucketsIn(LocalDateTime from, LocalDateTime to) {
+        return Duration.between(from, to).dividedBy(unit.getDuration()) + 1;
+    }
+
+    /** The next coarser resolution, or {@code null} for the coarsest. */
+    public RollupResolution parent() {
+        return this == DAY ? null : values()[ordinal() + 1];
+    }
+}
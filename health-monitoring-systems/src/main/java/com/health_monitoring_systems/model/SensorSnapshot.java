@@ -0,0 +1,30 @@
+package com.health_monitoring_systems.model;
+
+import lombok.Value;
+import lombok.With;
+
+/**
+ * Immutable reading published by the live-state registry. Once a snapshot is
+ * visible to readers it never changes, so it can be shared without copying.
+ */
+@Value
+@With
+public class SensorSnapshot {
+    String deviceId;
+    long sequence;
+    long timestamp;
+    float temperature;
+    float humidity;
+    float bodyTemperature;
+    float bpm;
+    float spo2;
+
+    public static SensorSnapshot of(String deviceId, long sequence, long timestamp, SensorData data) {
+        return new SensorSnapshot(deviceId, sequence, timestamp,
+                data.getTemperature(),
+                data.getHumidity(),
+                data.getBodyTemperature(),
+                data.getBpm(),
+                data.getSpo2());
+    }
+}
@@ -15,7 +15,13 @@ import java.util.List;
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "user_measurements")
+@Table(name = "user_measurements", indexes = {
+        // Keyset pages and range scans read only this index, never the table rows
+        @Index(name = "idx_measurements_user_date", columnList = "user_id, date_of_measurement, id, "
+                + "temperature, heart_rate, oxygen, humidity, room_temperature"),
+        // Delta sync: a user's rows added after a cursor id
+        @Index(name = "idx_measurements_user_id", columnList = "user_id, id")
+})
 public class UserMeasurements {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,6 +32,12 @@ public class UserMeasurements {
     private double humidity;
     private double roomTemperature;
     private LocalDateTime dateOfMeasurement;
+    // Only set on rows recorded server-side from the live stream, one row per window
+    private Integer heartRateMin;
+    private Integer heartRateMax;
+    private Integer oxygenMin;
+    private Integer oxygenMax;
+    private Integer sampleCount;
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     @JsonBackReference("user-measurements")
@@ -0,0 +1,20 @@
+package com.health_monitoring_systems.repository;
+
+import com.health_monitoring_systems.dto.DeviceOwner;
+import com.health_monitoring_systems.model.Device;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DeviceRepository extends JpaRepository<Device, String> {
+
+    List<Device> findByOwnerIdOrderByLinkedAtDesc(Long userId);
+
+    @Query("select new com.health_monitoring_systems.dto.DeviceOwner(u.id, u.email, u.name, doc.doctorName, doc.doctorEmail) " +
+            "from Device d join d.owner u left join u.doctor doc where d.deviceId = :deviceId")
+    Optional<DeviceOwner> findOwner(String deviceId);
+}
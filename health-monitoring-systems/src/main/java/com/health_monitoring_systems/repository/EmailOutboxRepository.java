@@ -0,0 +1,50 @@
+package com.health_monitoring_systems.repository;
+
+import com.health_monitoring_systems.model.EmailOutbox;
+import com.health_monitoring_systems.model.EmailStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    @Query("select e.id from EmailOutbox e where e.status = :status and e.nextAttemptAt <= :now order by e.nextAttemptAt")
+    List<Long> findDueIds(EmailStatus status, LocalDateTime now, Limit limit);
+
+    /**
+     * Moves a pending message to SENDING. Returns 0 if another worker got there first.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox e set e.status = com.health_monitoring_systems.model.EmailStatus.SENDING, e.claimedAt = :now "
+            + "where e.id = :id and e.status = com.health_monitoring_systems.model.EmailStatus.PENDING")
+    int claim(Long id, LocalDateTime now);
+
+    /**
+     * Returns messages stuck in SENDING (e.g. the node died mid-send) to the queue. The lost
+     * send counts as an attempt, so a message that keeps killing its sender still runs out.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox e set e.status = com.health_monitoring_systems.model.EmailStatus.PENDING, "
+            + "e.attempts = e.attempts + 1, e.lastError = 'Send did not finish within the claim timeout' "
+            + "where e.status = com.health_monitoring_systems.model.EmailStatus.SENDING and e.claimedAt < :before "
+            + "and e.attempts + 1 < :maxAttempts")
+    int releaseStale(LocalDateTime before, int maxAttempts);
+
+    /**
+     * Marks stuck messages FAILED when the lost send was their last allowed attempt.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EmailOutbox e set e.status = com.health_monitoring_systems.model.EmailStatus.FAILED, "
+            + "e.attempts = e.attempts + 1, e.lastError = 'Send did not finish within the claim timeout' "
+            + "where e.status = com.health_monitoring_systems.model.EmailStatus.SENDING and e.claimedAt < :before "
+            + "and e.attempts + 1 >= :maxAttempts")
+    int failStale(LocalDateTime before, int maxAttempts);
+}
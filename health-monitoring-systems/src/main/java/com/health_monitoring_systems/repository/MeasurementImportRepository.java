@@ -0,0 +1,13 @@
+package com.health_monitoring_systems.repository;
+
+import com.health_monitoring_systems.model.ImportStatus;
+import com.health_monitoring_systems.model.MeasurementImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MeasurementImportRepository extends JpaRepository<MeasurementImport, Long> {
+
+    List<MeasurementImport> findByStatusIn(Collection<ImportStatus> statuses);
+}
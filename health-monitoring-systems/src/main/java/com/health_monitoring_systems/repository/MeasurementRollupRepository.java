@@ -0,0 +1,13 @@
+package com.health_monitoring_systems.repository;
+
+import com.health_monitoring_systems.model.MeasurementRollup;
+import com.health_monitoring_systems.model.RollupResolution;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MeasurementRollupRepository extends JpaRepository<MeasurementRollup, Long> {
+    List<MeasurementRollup> findByUserIdAndResolutionAndBucketStartBetweenOrderByBucketStart(
+            Long userId, RollupResolution resolution, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,14 @@
+package com.health_monitoring_systems.repository;
+
+import com.health_monitoring_systems.model.MeasurementSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MeasurementSketchRepository extends JpaRepository<MeasurementSketch, Long> {
+    List<MeasurementSketch> findByUserIdAndBucketDay(Long userId, LocalDate bucketDay);
+
+    List<MeasurementSketch> findByUserIdAndVitalAndBucketDayBetween(Long userId, MeasurementSketch.Vital vital,
+                                                                     LocalDate from, LocalDate to);
+}
@@ -0,0 +1,27 @@
+package com.health_monitoring_systems.repository;
+
+import com.health_monitoring_systems.model.MeasurementTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MeasurementTombstoneRepository extends JpaRepository<MeasurementTombstone, Long> {
+
+    @Query("select coalesce(max(t.id), 0) from MeasurementTombstone t")
+    long findMaxId();
+
+    /**
+     * Deletes with tombstone ids in {@code (afterId, upToId]}, plus any up to {@code upToId}
+     * made after {@code recentAfter}: those may have committed after a lower id was read.
+     */
+    @Query("select t.measurementId from MeasurementTombstone t where t.userId = :userId and t.id <= :upToId "
+            + "and (t.id > :afterId or t.deletedAt > :recentAfter) order by t.id")
+    List<Long> findDeletedIds(Long userId, long afterId, long upToId, LocalDateTime recentAfter);
+
+    @Modifying
+    @Query("delete from MeasurementTombstone t where t.deletedAt < :cutoff")
+    int deleteOlderThan(LocalDateTime cutoff);
+}
@@ -0,0 +1,16 @@
+package com.health_monitoring_systems.repository;
+
+import com.health_monitoring_systems.model.RollupCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface RollupCheckpointRepository extends JpaRepository<RollupCheckpoint, String> {
+    // Held until the catch-up chunk commits, so passes on several instances (and rebuilds) take turns
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from RollupCheckpoint c where c.name = :name")
+    Optional<RollupCheckpoint> findForUpdate(String name);
+}
@@ -1,10 +1,54 @@
 package com.health_monitoring_systems.repository;
 
+import com.health_monitoring_systems.dto.MeasurementView;
 import com.health_monitoring_systems.model.UserMeasurements;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface UserMeasurementsRepository extends JpaRepository<UserMeasurements, Long> {
     List<UserMeasurements> findByUserId(Long userId);
     List<UserMeasurements> findByUserEmail(String email);
+
+    /**
+     * All of a user's rows in insertion order, which is the order the legacy list endpoints
+     * returned when they walked {@code User.userMeasurements}.
+     */
+    @Query("select new com.health_monitoring_systems.dto.MeasurementView(m.id, m.temperature, m.heartRate, m.oxygen, "
+            + "m.humidity, m.roomTemperature, m.dateOfMeasurement) "
+            + "from UserMeasurements m where m.user.id = :userId order by m.id")
+    List<MeasurementView> findViewsByUserId(Long userId);
+
+    @Query("select new com.health_monitoring_systems.dto.MeasurementView(m.id, m.temperature, m.heartRate, m.oxygen, "
+            + "m.humidity, m.roomTemperature, m.dateOfMeasurement) "
+            + "from UserMeasurements m where m.user.id = :userId order by m.dateOfMeasurement desc, m.id desc")
+    List<MeasurementView> findLatestViews(Long userId, Limit limit);
+
+    long countByUserId(Long userId);
+
+    /** A user's rows with ids above {@code afterId}, oldest id first; the delta sync feed. */
+    @Query("select new com.health_monitoring_systems.dto.MeasurementView(m.id, m.temperature, m.heartRate, m.oxygen, "
+            + "m.humidity, m.roomTemperature, m.dateOfMeasurement) "
+            + "from UserMeasurements m where m.user.id = :userId and m.id > :afterId order by m.id")
+    List<MeasurementView> findViewsAddedAfter(Long userId, long afterId, Limit limit);
+
+    /** A user's rows with ids in {@code (afterId, upToId]}, oldest id first; re-scanned by delta sync. */
+    @Query("select new com.health_monitoring_systems.dto.MeasurementView(m.id, m.temperature, m.heartRate, m.oxygen, "
+            + "m.humidity, m.roomTemperature, m.dateOfMeasurement) "
+            + "from UserMeasurements m where m.user.id = :userId and m.id > :afterId and m.id <= :upToId order by m.id")
+    List<MeasurementView> findViewsAddedBetween(Long userId, long afterId, long upToId, Limit limit);
+
+    /**
+     * One page of a user's history, newest first, strictly older than the
+     * {@code (beforeDate, beforeId)} cursor and not older than {@code from}.
+     */
+    @Query("select new com.health_monitoring_systems.dto.MeasurementView(m.id, m.temperature, m.heartRate, m.oxygen, "
+            + "m.humidity, m.roomTemperature, m.dateOfMeasurement) "
+            + "from UserMeasurements m where m.user.id = :userId and m.dateOfMeasurement >= :from "
+            + "and (m.dateOfMeasurement < :beforeDate or (m.dateOfMeasurement = :beforeDate and m.id < :beforeId)) "
+            + "order by m.dateOfMeasurement desc, m.id desc")
+    List<MeasurementView> findPage(Long userId, LocalDateTime from, LocalDateTime beforeDate, Long beforeId, Limit limit);
 }
@@ -1,7 +1,9 @@
 package com.health_monitoring_systems.repository;
 
 import com.health_monitoring_systems.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +11,14 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail (String email);
+
+    @Query("select u.id from User u where u.email = :email")
+    Optional<Long> findIdByEmail(String email);
+
+    // User, details and doctor in one join; the measurement collection stays unloaded
+    @EntityGraph(attributePaths = {"userDetails", "doctor"})
+    Optional<User> findProfileById(Long id);
+
+    @EntityGraph(attributePaths = {"userDetails", "doctor"})
+    Optional<User> findProfileByEmail(String email);
 }
@@ -1,28 +1,55 @@
 package com.health_monitoring_systems.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import javax.crypto.SecretKey;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
+    private static final String ROLES_CLAIM = "roles";
+    private static final List<String> DEFAULT_ROLES = List.of("ROLE_USER");
+
     private final SecretKey signingKey;
     private final long expirationMillis;
+    private final JwtParser parser;
+    // Keyed by the token's SHA-256, so live bearer tokens aren't kept on the heap
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final int tokenCacheSize;
+
+    /**
+     * Claims of a token whose signature and expiry have been checked.
+     */
+    public record VerifiedToken(String subject, List<GrantedAuthority> authorities, long expiresAtMillis) {
+    }
 
     public JwtService(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.expiration-minutes:60}") long expirationMinutes
+            @Value("${app.jwt.expiration-minutes:60}") long expirationMinutes,
+            @Value("${app.jwt.token-cache-size:10000}") int tokenCacheSize
     ) {
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMillis = Duration.ofMinutes(expirationMinutes).toMillis();
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.tokenCacheSize = tokenCacheSize;
     }
 
     public String extractUsername(String token) {
@@ -39,6 +66,7 @@ public class JwtService {
         Date expiry = new Date(now.getTime() + expirationMillis);
         return Jwts.builder()
                 .subject(subject)
+                .claim(ROLES_CLAIM, DEFAULT_ROLES)
                 .issuedAt(now)
                 .expiration(expiry)
                 .signWith(signingKey)
@@ -46,19 +74,68 @@ public class JwtService {
     }
 
     public boolean isTokenValid(String token, String username) {
-        final String subject = extractUsername(token);
-        return subject.equals(username) && !isTokenExpired(token);
+        VerifiedToken verified = verify(token);
+        return verified != null && verified.subject().equals(username);
+    }
+
+    /**
+     * Parses and verifies the token once, then serves repeats of the same token from memory
+     * until it expires.
+     *
+     * @return the verified claims, or {@code null} if the token is malformed, forged or expired
+     */
+    public VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        String key = digest(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                return cached;
+            }
+            verifiedTokens.remove(key);
+            return null;
+        }
+        Claims claims;
+        try {
+            claims = parseAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        Date expiration = claims.getExpiration();
+        if (claims.getSubject() == null || expiration == null || expiration.getTime() <= now) {
+            return null;
+        }
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), authorities(claims), expiration.getTime());
+        // When full, stay bounded and skip caching until the scheduled sweep frees room
+        if (verifiedTokens.size() < tokenCacheSize) {
+            verifiedTokens.put(key, verified);
+        }
+        return verified;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.token-cache-sweep-ms:60000}")
+    public void evictExpiredTokens() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(verified -> verified.expiresAtMillis() <= now);
+    }
+
+    private List<GrantedAuthority> authorities(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        List<?> names = roles instanceof List<?> list ? list : DEFAULT_ROLES;
+        return names.stream()
+                .map(name -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(name)))
+                .toList();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    private static String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     private Claims parseAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(signingKey)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
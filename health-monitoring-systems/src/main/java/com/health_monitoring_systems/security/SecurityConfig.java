@@ -38,6 +38,8 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Bulk imports write to disk and to any user's history; never anonymous
+                        .requestMatchers("/measurements/imports/**").authenticated()
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/user/**",
@@ -49,7 +51,10 @@ public class SecurityConfig {
                                 "/measurements/**",
                                 "/api/workouts/**",
                                 "/error",
-                                "/actuator/health"
+                                "/actuator/health",
+                                "/actuator/health/liveness",
+                                "/actuator/health/readiness",
+                                "/actuator/prometheus"
                         ).permitAll()
                         .anyRequest().authenticated()
                 )
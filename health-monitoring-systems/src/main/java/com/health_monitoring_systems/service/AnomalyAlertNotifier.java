@@ -0,0 +1,109 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.config.WorkerThreads;
+import com.health_monitoring_systems.dto.DeviceOwner;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns anomaly alerts into emails to the patient's doctor. Looking up the device owner and
+ * writing to the outbox happen on a background thread so the ingest path never waits on the
+ * database; when the queue is full further alerts are logged and dropped.
+ */
+@Component
+public class AnomalyAlertNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnomalyAlertNotifier.class);
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final DeviceService deviceService;
+    private final EmailService emailService;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+
+    public AnomalyAlertNotifier(DeviceService deviceService,
+                                EmailService emailService,
+                                MeterRegistry meterRegistry,
+                                WorkerThreads workerThreads,
+                                @Value("${app.anomaly.alert-queue-capacity:1000}") int queueCapacity) {
+        this.deviceService = deviceService;
+        this.emailService = emailService;
+        this.meterRegistry = meterRegistry;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                workerThreads.factory("anomaly-alerts"),
+                (runnable, pool) -> logger.warn("Anomaly alert queue is full, dropping alert"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public void submit(VitalsAnomalyDetector.Alert alert) {
+        executor.execute(() -> deliver(alert));
+    }
+
+    private void deliver(VitalsAnomalyDetector.Alert alert) {
+        meterRegistry.counter("sensor.anomaly.alerts",
+                "vital", alert.vital().name(), "trigger", alert.trigger().name()).increment();
+        logger.warn("Anomaly on device {}: {} {} (value {}, baseline {}, z {})", alert.deviceId(), alert.vital(),
+                alert.trigger(), alert.value(), String.format(Locale.ROOT, "%.1f", alert.baseline()),
+                String.format(Locale.ROOT, "%.1f", alert.zScore()));
+        try {
+            DeviceOwner owner = deviceService.findOwner(alert.deviceId()).orElse(null);
+            if (owner == null) {
+                logger.info("Device {} is not linked to a user, alert not sent", alert.deviceId());
+                return;
+            }
+            if (owner.getDoctorEmail() == null || owner.getDoctorEmail().isBlank()) {
+                logger.info("User {} has no doctor on file, alert not sent", owner.getUserId());
+                return;
+            }
+            emailService.sendHealthReport(owner.getEmail(), owner.getName(), owner.getDoctorEmail(),
+                    subject(owner, alert), body(owner, alert));
+        } catch (Exception e) {
+            logger.error("Failed to queue anomaly alert for device {}. Root cause: ", alert.deviceId(), e);
+        }
+    }
+
+    private static String subject(DeviceOwner owner, VitalsAnomalyDetector.Alert alert) {
+        String patient = owner.getName() != null ? owner.getName() : owner.getEmail();
+        return "Health alert for " + patient + ": " + describe(alert.vital());
+    }
+
+    private static String body(DeviceOwner owner, VitalsAnomalyDetector.Alert alert) {
+        String when = TIME.format(Instant.ofEpochMilli(alert.timestamp()).atZone(ZoneId.systemDefault()));
+        String reason = switch (alert.trigger()) {
+            case BELOW_MIN -> "is below the safe range";
+            case ABOVE_MAX -> "is above the safe range";
+            case DEVIATION -> String.format(Locale.ROOT, "deviates sharply from the recent baseline of %.1f",
+                    alert.baseline());
+        };
+        return "Dear " + (owner.getDoctorName() != null ? owner.getDoctorName() : "Doctor") + ",\n\n"
+                + "The monitoring device of " + (owner.getName() != null ? owner.getName() : owner.getEmail())
+                + " reported a " + describe(alert.vital()) + " of "
+                + String.format(Locale.ROOT, "%.1f", alert.value()) + " at " + when + ", which " + reason + ".\n\n"
+                + "This message was generated automatically from the live sensor stream.";
+    }
+
+    private static String describe(VitalsAnomalyDetector.Vital vital) {
+        return switch (vital) {
+            case BPM -> "heart rate";
+            case SPO2 -> "blood oxygen level";
+            case BODY_TEMPERATURE -> "body temperature";
+        };
+    }
+}
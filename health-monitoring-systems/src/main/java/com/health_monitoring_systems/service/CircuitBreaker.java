@@ -0,0 +1,51 @@
+package com.health_monitoring_systems.service;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal consecutive-failure breaker for calls to external services. After
+ * {@code failureThreshold} failures in a row it rejects calls for {@code openMillis}, then lets
+ * a single trial call through; that call's outcome closes or re-opens it.
+ */
+class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openedAt = -1;
+
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    boolean allowRequest() {
+        long opened = openedAt;
+        if (opened < 0) {
+            return true;
+        }
+        if (System.currentTimeMillis() - opened < openMillis) {
+            return false;
+        }
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    void recordSuccess() {
+        consecutiveFailures.set(0);
+        openedAt = -1;
+        trialInFlight.set(false);
+    }
+
+    void recordFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt = System.currentTimeMillis();
+        }
+        trialInFlight.set(false);
+    }
+
+    boolean isOpen() {
+        return openedAt >= 0;
+    }
+}
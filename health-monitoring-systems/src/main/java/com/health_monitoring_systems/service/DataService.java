@@ -1,25 +1,129 @@
 package com.health_monitoring_systems.service;
 
+import com.health_monitoring_systems.ingest.SensorFrame;
+import com.health_monitoring_systems.ingest.SensorFrameCodec;
 import com.health_monitoring_systems.model.SensorData;
+import com.health_monitoring_systems.model.SensorSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class DataService {
-    private final SensorData data = new SensorData();
+    private final LiveStateRegistry registry;
+    private final SensorStreamHub streamHub;
+    private final VitalsAnomalyDetector anomalyDetector;
+    private final LiveStreamRecorder recorder;
+    private final IngestAdmission admission;
+    private final Timer ingestTimer;
+    private final Counter staleFrames;
+
+    public DataService(LiveStateRegistry registry, SensorStreamHub streamHub, VitalsAnomalyDetector anomalyDetector,
+                       LiveStreamRecorder recorder, IngestAdmission admission, MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.streamHub = streamHub;
+        this.anomalyDetector = anomalyDetector;
+        this.recorder = recorder;
+        this.admission = admission;
+        this.ingestTimer = Timer.builder("sensor.ingest")
+                .description("Time to publish one sensor sample to live state, detection and subscribers")
+                .register(meterRegistry);
+        this.staleFrames = Counter.builder("sensor.frames.stale")
+                .description("Binary frames dropped because the device had already sent a newer one")
+                .register(meterRegistry);
+    }
+
+    public SensorSnapshot getSensorDataFromArduino(String deviceId, SensorData sensorData){
+        long start = System.nanoTime();
+        SensorSnapshot snapshot = registry.publish(deviceId, sensorData);
+        fanOut(snapshot, sensorData, start);
+        return snapshot;
+    }
+
+    private void fanOut(SensorSnapshot snapshot, SensorData sensorData, long start) {
+        anomalyDetector.observe(snapshot.getDeviceId(), snapshot.getTimestamp(), sensorData);
+        recorder.record(snapshot.getDeviceId(), snapshot.getTimestamp(), sensorData);
+        streamHub.publish(forDisplay(snapshot));
+        ingestTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Ingests one sample unless ingest is overloaded and the sample is low priority.
+     *
+     * @throws com.health_monitoring_systems.exception.IngestOverloadedException if the sample is shed
+     */
+    public SensorSnapshot receiveData(String deviceId, SensorData sensorData) {
+        admission.requireAdmission(admission.classify(deviceId, sensorData));
+        return getSensorDataFromArduino(deviceId, sensorData);
+    }
+
+    /**
+     * Ingests every binary frame in the buffer. Frames without a device id are attributed to
+     * {@code fallbackDeviceId}. Samples keep the device's clock, and frames older than one
+     * already ingested from the device are skipped. Under overload, low-priority frames are
+     * skipped rather than failing the whole batch.
+     *
+     * @return the number of frames ingested
+     */
+    public int receiveFrames(ByteBuffer frames, String fallbackDeviceId) {
+        if (frames.remaining() % SensorFrameCodec.FRAME_SIZE != 0) {
+            throw new IllegalArgumentException("Body is not a whole number of sensor frames");
+        }
+        SensorFrame frame = new SensorFrame();
+        int count = 0;
+        while (frames.hasRemaining()) {
+            SensorFrameCodec.decode(frames, frame);
+            String deviceId = frame.getDeviceId().isEmpty() ? fallbackDeviceId : frame.getDeviceId();
+            // Judged by when the device took the sample, so a backlog flushed at once isn't all "redundant"
+            long sampledAt = registry.sampleTime(frame.getTimestamp());
+            if (!admission.admit(admission.classify(deviceId, frame.getData(), sampledAt))) {
+                continue;
+            }
+            long start = System.nanoTime();
+            SensorSnapshot snapshot = registry.publishFrame(deviceId, frame.getData(), frame.getBootId(), frame.getSequence(), frame.getTimestamp());
+            if (snapshot == null) {
+                staleFrames.increment();
+                continue;
+            }
+            fanOut(snapshot, frame.getData(), start);
+            count++;
+        }
+        return count;
+    }
+
+    public SensorSnapshot getSensorData(String deviceId) {
+        SensorSnapshot snapshot = registry.latest(deviceId);
+        if (snapshot == null) {
+            return SensorSnapshot.of(deviceId, 0, 0, new SensorData());
+        }
+        return forDisplay(snapshot);
+    }
 
-    public SensorData getSensorDataFromArduino(SensorData sensorData){
-        data.setBpm(sensorData.getBpm());
-        data.setTemperature(sensorData.getTemperature());
-        data.setBodyTemperature(sensorData.getBodyTemperature());
-        data.setSpo2(sensorData.getSpo2());
-        data.setHumidity(sensorData.getHumidity());
+    /** Strong ETag of what {@link #getSensorData} returns right now. */
+    public String getSensorDataEtag(String deviceId) {
+        SensorSnapshot snapshot = registry.latest(deviceId);
+        // The timestamp tells apart a device that was evicted and started counting again
+        return snapshot == null ? "\"0\"" : "\"" + snapshot.getTimestamp() + "." + snapshot.getSequence() + "\"";
+    }
 
-        return sensorData;
+    public List<SensorSnapshot> getSensorHistory(String deviceId, int limit) {
+        return registry.history(deviceId, limit);
     }
-    public SensorData getSensorData() {
-        if(data.getBpm() < 60) {
-            data.setBpm(0);
+
+    public SensorStreamHub.Subscription subscribe(String deviceId, SensorStreamHub.FrameSink sink) {
+        SensorSnapshot latest = registry.latest(deviceId);
+        return streamHub.subscribe(deviceId, sink, latest == null ? null : forDisplay(latest));
+    }
+
+    private SensorSnapshot forDisplay(SensorSnapshot snapshot) {
+        if(snapshot.getBpm() < 60) {
+            return snapshot.withBpm(0);
         }
-        return data;
+        return snapshot;
     }
 }
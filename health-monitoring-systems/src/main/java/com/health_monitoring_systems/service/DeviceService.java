@@ -0,0 +1,57 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.DeviceOwner;
+import com.health_monitoring_systems.exception.UserNotFoundException;
+import com.health_monitoring_systems.model.Device;
+import com.health_monitoring_systems.model.User;
+import com.health_monitoring_systems.repository.DeviceRepository;
+import com.health_monitoring_systems.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class DeviceService {
+
+    private final DeviceRepository deviceRepository;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public DeviceService(DeviceRepository deviceRepository, UserRepository userRepository) {
+        this.deviceRepository = deviceRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Links the device to the user. A device that was linked to someone else moves to the new owner.
+     */
+    public Device linkDevice(Long userId, String deviceId) {
+        if (deviceId == null || deviceId.isBlank() || deviceId.length() > 64) {
+            throw new IllegalArgumentException("Device id must be 1-64 characters");
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        Device device = deviceRepository.findById(deviceId).orElseGet(Device::new);
+        device.setDeviceId(deviceId);
+        device.setOwner(user);
+        device.setLinkedAt(LocalDateTime.now());
+        return deviceRepository.save(device);
+    }
+
+    public void unlinkDevice(Long userId, String deviceId) {
+        deviceRepository.findById(deviceId)
+                .filter(device -> device.getOwner().getId().equals(userId))
+                .ifPresent(deviceRepository::delete);
+    }
+
+    public List<Device> getDevices(Long userId) {
+        return deviceRepository.findByOwnerIdOrderByLinkedAtDesc(userId);
+    }
+
+    public Optional<DeviceOwner> findOwner(String deviceId) {
+        return deviceRepository.findOwner(deviceId);
+    }
+}
@@ -0,0 +1,144 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.config.WorkerThreads;
+import com.health_monitoring_systems.model.EmailOutbox;
+import com.health_monitoring_systems.model.EmailStatus;
+import com.health_monitoring_systems.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Drains the email outbox. Due messages are claimed in batches and handed to a fixed pool of
+ * workers; each batch goes out over one SMTP connection. Failed messages are retried with
+ * exponential backoff until {@code max-attempts}, after which they are marked FAILED.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final ExecutorService workers;
+    private final Semaphore idleWorkers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long claimTimeoutMinutes;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 EmailService emailService,
+                                 MeterRegistry meterRegistry,
+                                 WorkerThreads workerThreads,
+                                 @Value("${app.email.workers:2}") int workerCount,
+                                 @Value("${app.email.batch-size:20}") int batchSize,
+                                 @Value("${app.email.max-attempts:6}") int maxAttempts,
+                                 @Value("${app.email.backoff-initial-ms:30000}") long initialBackoffMillis,
+                                 @Value("${app.email.backoff-max-ms:3600000}") long maxBackoffMillis,
+                                 @Value("${app.email.claim-timeout-minutes:10}") long claimTimeoutMinutes) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.workers = Executors.newFixedThreadPool(workerCount, workerThreads.factory("email-outbox"));
+        this.idleWorkers = new Semaphore(workerCount);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.claimTimeoutMinutes = claimTimeoutMinutes;
+        this.sent = meterRegistry.counter("email.messages", "outcome", "sent");
+        this.retried = meterRegistry.counter("email.messages", "outcome", "retried");
+        this.failed = meterRegistry.counter("email.messages", "outcome", "failed");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.poll-interval-ms:1000}")
+    public void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusMinutes(claimTimeoutMinutes);
+        int gaveUp = outboxRepository.failStale(staleBefore, maxAttempts);
+        if (gaveUp > 0) {
+            failed.increment(gaveUp);
+            logger.error("Giving up on {} emails whose last attempt never finished", gaveUp);
+        }
+        outboxRepository.releaseStale(staleBefore, maxAttempts);
+        while (idleWorkers.tryAcquire()) {
+            List<Long> claimed = new ArrayList<>();
+            for (Long id : outboxRepository.findDueIds(EmailStatus.PENDING, now, Limit.of(batchSize))) {
+                if (outboxRepository.claim(id, now) == 1) {
+                    claimed.add(id);
+                }
+            }
+            if (claimed.isEmpty()) {
+                idleWorkers.release();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    deliver(claimed);
+                } finally {
+                    idleWorkers.release();
+                }
+            });
+        }
+    }
+
+    private void deliver(List<Long> ids) {
+        List<EmailOutbox> emails = outboxRepository.findAllById(ids);
+        Map<Long, Exception> failures = emailService.deliver(emails);
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutbox email : emails) {
+            email.setAttempts(email.getAttempts() + 1);
+            Exception failure = failures.get(email.getId());
+            if (failure == null) {
+                email.setStatus(EmailStatus.SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+                sent.increment();
+                continue;
+            }
+            email.setLastError(truncate(String.valueOf(failure.getMessage())));
+            if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(EmailStatus.FAILED);
+                failed.increment();
+                logger.error("Giving up on email {} after {} attempts: {}", email.getId(), email.getAttempts(), failure.getMessage());
+            } else {
+                email.setStatus(EmailStatus.PENDING);
+                retried.increment();
+                email.setNextAttemptAt(now.plusNanos(backoffMillis(email.getAttempts()) * 1_000_000));
+            }
+        }
+        outboxRepository.saveAll(emails);
+    }
+
+    private long backoffMillis(int attempts) {
+        long backoff = initialBackoffMillis << Math.min(attempts - 1, 20);
+        return Math.min(backoff, maxBackoffMillis);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
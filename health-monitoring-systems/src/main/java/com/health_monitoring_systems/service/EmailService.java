@@ -1,45 +1,131 @@
 package com.health_monitoring_systems.service;
 
+import com.health_monitoring_systems.model.EmailOutbox;
+import com.health_monitoring_systems.model.EmailStatus;
+import com.health_monitoring_systems.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.io.UnsupportedEncodingException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class EmailService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
     private final JavaMailSender mailSender;
+    private final EmailOutboxRepository outboxRepository;
+    private final Timer sendSuccess;
+    private final Timer sendError;
 
     @Value("${spring.mail.username}")
     private String officialFromEmail;
 
     @Autowired
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, EmailOutboxRepository outboxRepository, MeterRegistry meterRegistry) {
         this.mailSender = mailSender;
+        this.outboxRepository = outboxRepository;
+        this.sendSuccess = sendTimer(meterRegistry, "success");
+        this.sendError = sendTimer(meterRegistry, "error");
+    }
+
+    /**
+     * Stores the report in the outbox; {@link EmailOutboxDispatcher} delivers it later.
+     */
+    public EmailOutbox sendHealthReport(String from, String fromName, String to, String subject, String body) {
+        EmailOutbox email = new EmailOutbox();
+        email.setReplyTo(from);
+        email.setFromName(fromName);
+        email.setToAddress(to);
+        email.setSubject(subject);
+        email.setBody(body);
+        email.setStatus(EmailStatus.PENDING);
+        email.setCreatedAt(LocalDateTime.now());
+        email.setNextAttemptAt(email.getCreatedAt());
+        return outboxRepository.save(email);
     }
 
-    public void sendHealthReport(String from, String fromName, String to, String subject, String body) {
+    public EmailOutbox getEmail(Long id) {
+        return outboxRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Email not found"));
+    }
+
+    /**
+     * Sends the messages over a single SMTP connection.
+     *
+     * @return the failure for each message id that could not be sent; empty if all went out
+     */
+    Map<Long, Exception> deliver(List<EmailOutbox> emails) {
+        Map<Long, Exception> failures = new HashMap<>();
+        Map<MimeMessage, EmailOutbox> byMessage = new IdentityHashMap<>();
+        for (EmailOutbox email : emails) {
+            try {
+                byMessage.put(toMimeMessage(email), email);
+            } catch (MessagingException | UnsupportedEncodingException | RuntimeException e) {
+                // e.g. a blank recipient; only this message fails, not its batch
+                failures.put(email.getId(), e);
+            }
+        }
+        if (byMessage.isEmpty()) {
+            return failures;
+        }
+        long start = System.nanoTime();
         try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-            helper.setFrom(new InternetAddress(officialFromEmail, fromName));
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, false); 
-            helper.setReplyTo(from);
-
-            mailSender.send(mimeMessage);
-        } catch (Exception e) {
-            logger.error("Failed to send email. Root cause: ", e);
-            throw new RuntimeException("Failed to send email. Check server logs for details.", e);
+            mailSender.send(byMessage.keySet().toArray(new MimeMessage[0]));
+            sendSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (MailSendException e) {
+            sendError.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Per-message failures; everything not listed was accepted by the server
+            e.getFailedMessages().forEach((message, cause) -> {
+                EmailOutbox email = byMessage.get(message);
+                if (email != null) {
+                    failures.put(email.getId(), cause);
+                }
+            });
+            if (e.getFailedMessages().isEmpty()) {
+                byMessage.values().forEach(email -> failures.put(email.getId(), e));
+            }
+        } catch (RuntimeException e) {
+            sendError.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.error("Failed to send {} emails. Root cause: ", byMessage.size(), e);
+            byMessage.values().forEach(email -> failures.put(email.getId(), e));
         }
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox email) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+
+        helper.setFrom(new InternetAddress(officialFromEmail, email.getFromName()));
+        helper.setTo(email.getToAddress());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), false);
+        helper.setReplyTo(email.getReplyTo());
+        return mimeMessage;
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("email.smtp.send")
+                .description("One SMTP session delivering a batch of outbox messages")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 }
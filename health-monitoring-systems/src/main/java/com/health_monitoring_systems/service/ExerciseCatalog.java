@@ -0,0 +1,228 @@
+package com.health_monitoring_systems.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.health_monitoring_systems.config.WorkerThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory copy of the ExerciseDB catalog, one entry per body part. Entries are served fresh
+ * for the TTL, then served stale while a background refresh runs. Misses are fetched in
+ * parallel, each call bounded by timeouts and guarded by a circuit breaker so a slow or failing
+ * upstream cannot hold request threads.
+ */
+@Component
+public class ExerciseCatalog {
+
+    /** Exercises for one body part, pre-grouped by equipment. Both collections are read-only. */
+    public record Entry(List<Map<String, Object>> exercises,
+                        Map<String, List<Map<String, Object>>> byEquipment,
+                        long fetchedAt) {
+    }
+
+    public static final String ALL = "";
+
+    private static final Logger logger = LoggerFactory.getLogger(ExerciseCatalog.class);
+    private static final TypeReference<List<Map<String, Object>>> EXERCISE_LIST = new TypeReference<>() {};
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+    private final ObjectMapper mapper;
+    private final OkHttpClient client;
+    private final ExecutorService fetcher;
+    private final CircuitBreaker breaker;
+    private final HttpUrl baseUrl;
+    private final String host;
+    private final long ttlMillis;
+    private final long staleMillis;
+    private final long requestTimeoutMillis;
+    private final String rapidApiKey;
+    private final Timer upstreamSuccess;
+    private final Timer upstreamError;
+    private final Counter shortCircuited;
+
+    public ExerciseCatalog(ObjectMapper mapper,
+                           MeterRegistry meterRegistry,
+                           WorkerThreads workerThreads,
+                           @Value("${rapidapi.key}") String rapidApiKey,
+                           @Value("${app.workouts.base-url:https://exercisedb.p.rapidapi.com}") String baseUrl,
+                           @Value("${app.workouts.cache-ttl-minutes:60}") long ttlMinutes,
+                           @Value("${app.workouts.stale-ttl-minutes:1440}") long staleMinutes,
+                           @Value("${app.workouts.connect-timeout-ms:2000}") long connectTimeoutMillis,
+                           @Value("${app.workouts.read-timeout-ms:3000}") long readTimeoutMillis,
+                           @Value("${app.workouts.request-timeout-ms:4000}") long requestTimeoutMillis,
+                           @Value("${app.workouts.breaker.failure-threshold:5}") int failureThreshold,
+                           @Value("${app.workouts.breaker.open-ms:30000}") long breakerOpenMillis) {
+        this.mapper = mapper;
+        this.rapidApiKey = rapidApiKey;
+        this.baseUrl = HttpUrl.get(baseUrl);
+        this.host = this.baseUrl.host();
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.staleMillis = TimeUnit.MINUTES.toMillis(staleMinutes);
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        this.client = new OkHttpClient.Builder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .readTimeout(Duration.ofMillis(readTimeoutMillis))
+                .callTimeout(Duration.ofMillis(requestTimeoutMillis))
+                .build();
+        this.breaker = new CircuitBreaker(failureThreshold, breakerOpenMillis);
+        this.upstreamSuccess = upstreamTimer(meterRegistry, "success");
+        this.upstreamError = upstreamTimer(meterRegistry, "error");
+        this.shortCircuited = meterRegistry.counter("workouts.upstream.short-circuited");
+        this.fetcher = Executors.newFixedThreadPool(4, workerThreads.factory("exercise-catalog"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fetcher.shutdownNow();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    /**
+     * Returns an entry for every requested body part ({@link #ALL} for the unfiltered list).
+     *
+     * @throws IOException if a body part has no usable cached entry and could not be fetched in time
+     */
+    public Map<String, Entry> get(List<String> bodyParts) throws IOException {
+        long now = System.currentTimeMillis();
+        Map<String, Entry> result = new LinkedHashMap<>();
+        Map<String, CompletableFuture<Entry>> misses = new LinkedHashMap<>();
+        for (String bodyPart : bodyParts) {
+            Entry entry = entries.get(bodyPart);
+            long age = entry == null ? Long.MAX_VALUE : now - entry.fetchedAt();
+            if (age < ttlMillis) {
+                result.put(bodyPart, entry);
+            } else if (age < ttlMillis + staleMillis) {
+                result.put(bodyPart, entry);
+                refresh(bodyPart);
+            } else {
+                misses.put(bodyPart, refresh(bodyPart));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestTimeoutMillis);
+        for (Map.Entry<String, CompletableFuture<Entry>> miss : misses.entrySet()) {
+            try {
+                result.put(miss.getKey(), miss.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading exercises", e);
+            } catch (ExecutionException | TimeoutException e) {
+                // Anything we ever had, however old, beats failing the request
+                Entry expired = entries.get(miss.getKey());
+                if (expired == null) {
+                    throw new IOException("Exercises for '" + miss.getKey() + "' are unavailable", e.getCause() != null ? e.getCause() : e);
+                }
+                result.put(miss.getKey(), expired);
+            }
+        }
+        return result;
+    }
+
+    private CompletableFuture<Entry> refresh(String bodyPart) {
+        CompletableFuture<Entry> running = inFlight.get(bodyPart);
+        if (running != null) {
+            return running;
+        }
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        running = inFlight.putIfAbsent(bodyPart, future);
+        if (running != null) {
+            return running;
+        }
+        // Callbacks are attached outside the map operation: the load may finish before they are
+        try {
+            CompletableFuture.supplyAsync(() -> load(bodyPart), fetcher).whenComplete((entry, error) -> {
+                if (entry != null) {
+                    entries.put(bodyPart, entry);
+                } else {
+                    logger.warn("Refreshing exercises for '{}' failed: {}", bodyPart, error.getMessage());
+                }
+                inFlight.remove(bodyPart, future);
+                if (entry != null) {
+                    future.complete(entry);
+                } else {
+                    future.completeExceptionally(error);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(bodyPart, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private Entry load(String bodyPart) {
+        if (!breaker.allowRequest()) {
+            shortCircuited.increment();
+            throw new CompletionException(new IOException("ExerciseDB circuit is open"));
+        }
+        HttpUrl.Builder url = baseUrl.newBuilder().addPathSegment("exercises");
+        if (!bodyPart.isEmpty()) {
+            url.addPathSegment("bodyPart").addPathSegment(bodyPart);
+        }
+        Request request = new Request.Builder()
+                .url(url.build())
+                .get()
+                .addHeader("X-RapidAPI-Key", rapidApiKey)
+                .addHeader("X-RapidAPI-Host", host)
+                .build();
+
+        List<Map<String, Object>> exercises;
+        long start = System.nanoTime();
+        try (Response response = client.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unexpected code " + response);
+            }
+            exercises = mapper.readValue(response.body().byteStream(), EXERCISE_LIST);
+        } catch (IOException e) {
+            upstreamError.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            breaker.recordFailure();
+            throw new UncheckedIOException(e);
+        }
+        upstreamSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        breaker.recordSuccess();
+
+        Map<String, List<Map<String, Object>>> byEquipment = exercises.stream()
+                .collect(Collectors.groupingBy(e -> Objects.toString(e.get("equipment"), ""),
+                        Collectors.collectingAndThen(Collectors.toList(), Collections::unmodifiableList)));
+        return new Entry(Collections.unmodifiableList(exercises), Collections.unmodifiableMap(byEquipment),
+                System.currentTimeMillis());
+    }
+
+    private static Timer upstreamTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("workouts.upstream.requests")
+                .description("ExerciseDB calls, including reading the response body")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,420 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.MeasurementView;
+import com.health_monitoring_systems.dto.RollupPoint;
+import com.health_monitoring_systems.model.RollupResolution;
+import com.health_monitoring_systems.repository.UserMeasurementsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the most recent measurements of users whose history is being read.
+ * Each user's rows live in a ring of primitive columns (ids, timestamps, vitals) sorted by
+ * time, capped at {@code capacity} rows and {@code horizon} hours, so a cached user costs a
+ * fixed ~48 bytes per row and no per-row objects. A user's window is loaded from the database
+ * on first read and afterwards kept current by the write paths of this instance; reads the
+ * window cannot answer completely (older than what it holds) return empty and go to the
+ * database. Writes made by other instances are not seen, so disable it when several instances
+ * write for the same users. Windows are always seeded from the primary: a lagging replica would
+ * leave holes the window then claims to cover.
+ */
+@Component
+public class HotMeasurementWindow {
+
+    private static final int INITIAL_ROWS = 64;
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final UserMeasurementsRepository measurementsRepository;
+    private final TransactionTemplate primaryRead;
+    private final Map<Long, Series> series = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long horizonMicros;
+    private final int capacity;
+    private final int maxUsers;
+    private final long idleMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    public HotMeasurementWindow(UserMeasurementsRepository measurementsRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.hot-window.enabled:true}") boolean enabled,
+                                @Value("${app.hot-window.horizon-hours:24}") long horizonHours,
+                                @Value("${app.hot-window.capacity-per-user:1440}") int capacity,
+                                @Value("${app.hot-window.max-users:1000}") int maxUsers,
+                                @Value("${app.hot-window.idle-minutes:30}") long idleMinutes) {
+        this.measurementsRepository = measurementsRepository;
+        // Callers may be in read-only transactions, which can be on the replica; a new read-write
+        // transaction routes the seed query to the primary
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.horizonMicros = horizonHours * 3_600_000_000L;
+        this.capacity = capacity;
+        this.maxUsers = maxUsers;
+        this.idleMillis = idleMinutes * 60_000;
+        this.hits = meterRegistry.counter("measurements.hot.reads", "outcome", "hit");
+        this.misses = meterRegistry.counter("measurements.hot.reads", "outcome", "miss");
+        Gauge.builder("measurements.hot.users", series, Map::size)
+                .description("Users with a cached recent window")
+                .register(meterRegistry);
+        Gauge.builder("measurements.hot.rows", this, HotMeasurementWindow::rowCount)
+                .description("Rows held across all cached windows")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a committed row to the user's window, if the user has one.
+     */
+    public void record(Long userId, long id, LocalDateTime date, double temperature, int heartRate, int oxygen,
+                       double humidity, double roomTemperature) {
+        Series s = series.get(userId);
+        if (s != null) {
+            s.add(id, micros(date), temperature, heartRate, oxygen, humidity, roomTemperature, cutoff());
+        }
+    }
+
+    /** Drops the user's window after writes it cannot follow (deletes, imports). */
+    public void invalidate(Long userId) {
+        series.remove(userId);
+    }
+
+    /**
+     * Same contract as {@code UserMeasurementsRepository.findPage}: rows at or after
+     * {@code from} and before the {@code (beforeDate, beforeId)} cursor, newest first. Empty when
+     * the window may be missing rows of that page.
+     */
+    public Optional<List<MeasurementView>> page(Long userId, LocalDateTime from, LocalDateTime beforeDate,
+                                                long beforeId, int limit) {
+        Series s = enabled ? load(userId) : null;
+        List<MeasurementView> rows = s == null ? null : s.page(micros(from), micros(beforeDate), beforeId, limit);
+        return outcome(rows);
+    }
+
+    /**
+     * Buckets at {@code resolution} from {@code from}'s bucket through {@code to}'s bucket,
+     * computed from the raw rows. Empty unless the window holds every row of that range.
+     */
+    public Optional<List<RollupPoint>> rollups(Long userId, RollupResolution resolution, LocalDateTime from,
+                                               LocalDateTime to) {
+        Series s = enabled ? load(userId) : null;
+        List<RollupPoint> points = s == null ? null
+                : s.rollups(resolution, micros(resolution.bucketStart(from)),
+                        micros(resolution.bucketEnd(resolution.bucketStart(to))));
+        return outcome(points);
+    }
+
+    private <T> Optional<T> outcome(T result) {
+        (result == null ? misses : hits).increment();
+        return Optional.ofNullable(result);
+    }
+
+    private Series load(Long userId) {
+        Series existing = series.get(userId);
+        if (existing != null) {
+            existing.lastRead = System.currentTimeMillis();
+            return existing.loaded ? existing : null;
+        }
+        // Register before querying so rows committed meanwhile are recorded into it, not lost
+        Series created = new Series(Math.min(INITIAL_ROWS, capacity));
+        existing = series.putIfAbsent(userId, created);
+        if (existing != null) {
+            return existing.loaded ? existing : null;
+        }
+        long cutoff = cutoff();
+        try {
+            List<MeasurementView> rows = primaryRead.execute(status -> measurementsRepository.findPage(userId,
+                    toDate(cutoff), FAR_FUTURE, Long.MAX_VALUE, Limit.of(capacity)));
+            created.load(rows, rows.size() == capacity, cutoff);
+        } catch (RuntimeException e) {
+            series.remove(userId, created);
+            throw e;
+        }
+        evictOverflow();
+        return created;
+    }
+
+    private void evictOverflow() {
+        while (series.size() > maxUsers) {
+            Long coldest = null;
+            long oldest = Long.MAX_VALUE;
+            for (Map.Entry<Long, Series> entry : series.entrySet()) {
+                if (entry.getValue().lastRead < oldest) {
+                    oldest = entry.getValue().lastRead;
+                    coldest = entry.getKey();
+                }
+            }
+            if (coldest == null) {
+                return;
+            }
+            series.remove(coldest);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.hot-window.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long idleBefore = System.currentTimeMillis() - idleMillis;
+        series.values().removeIf(s -> s.lastRead < idleBefore);
+    }
+
+    private long rowCount() {
+        long rows = 0;
+        for (Series s : series.values()) {
+            rows += s.size;
+        }
+        return rows;
+    }
+
+    private long cutoff() {
+        return micros(LocalDateTime.now()) - horizonMicros;
+    }
+
+    // Microseconds, rounded like the database rounds values stored in timestamp(6) columns
+    private static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + (time.getNano() + 500) / 1000;
+    }
+
+    private static LocalDateTime toDate(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    private static long bucketMicros(RollupResolution resolution) {
+        return switch (resolution) {
+            case MINUTE -> 60_000_000L;
+            case HOUR -> 3_600_000_000L;
+            case DAY -> 86_400_000_000L;
+        };
+    }
+
+    /**
+     * One user's rows, oldest first, in a ring of parallel primitive columns. Every row at or
+     * after {@code coveredFrom} is present; older rows may have been dropped.
+     */
+    private final class Series {
+        private long[] ids;
+        private long[] times;
+        private double[] temperature;
+        private int[] heartRate;
+        private int[] oxygen;
+        private double[] humidity;
+        private double[] roomTemperature;
+        private int head;
+        private volatile int size;
+        private long coveredFrom = Long.MIN_VALUE;
+        private volatile boolean loaded;
+        private volatile long lastRead = System.currentTimeMillis();
+
+        Series(int rows) {
+            allocate(rows);
+        }
+
+        private void allocate(int rows) {
+            ids = new long[rows];
+            times = new long[rows];
+            temperature = new double[rows];
+            heartRate = new int[rows];
+            oxygen = new int[rows];
+            humidity = new double[rows];
+            roomTemperature = new double[rows];
+        }
+
+        private int slot(int index) {
+            int slot = head + index;
+            return slot >= times.length ? slot - times.length : slot;
+        }
+
+        synchronized void load(List<MeasurementView> newestFirst, boolean truncated, long cutoff) {
+            for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                MeasurementView m = newestFirst.get(i);
+                insert(m.getId(), micros(m.getDateOfMeasurement()), m.getTemperature(), m.getHeartRate(),
+                        m.getOxygen(), m.getHumidity(), m.getRoomTemperature());
+            }
+            // A result cut off at capacity may be missing older rows inside the horizon
+            long oldestLoaded = truncated ? micros(newestFirst.get(newestFirst.size() - 1).getDateOfMeasurement()) + 1 : cutoff;
+            coveredFrom = Math.max(coveredFrom, oldestLoaded);
+            loaded = true;
+        }
+
+        synchronized void add(long id, long time, double temperature, int heartRate, int oxygen,
+                              double humidity, double roomTemperature, long cutoff) {
+            while (size > 0 && times[head] < cutoff) {
+                dropOldest();
+            }
+            if (time >= cutoff) {
+                insert(id, time, temperature, heartRate, oxygen, humidity, roomTemperature);
+            }
+        }
+
+        // A row committed while the window was loading is both recorded and in the seed query
+        private void insert(long id, long time, double temperature, int heartRate, int oxygen,
+                            double humidity, double roomTemperature) {
+            for (int i = size - 1; i >= 0 && times[slot(i)] >= time; i--) {
+                if (ids[slot(i)] == id) {
+                    return;
+                }
+            }
+            if (size == capacity) {
+                if (before(time, id, times[head], ids[head])) {
+                    coveredFrom = Math.max(coveredFrom, time + 1);
+                    return;
+                }
+                dropOldest();
+            }
+            if (size == times.length) {
+                grow();
+            }
+            // Rows nearly always arrive in time order; shift only for the rare late one
+            int index = size;
+            while (index > 0 && before(time, id, times[slot(index - 1)], ids[slot(index - 1)])) {
+                int from = slot(index - 1);
+                int to = slot(index);
+                ids[to] = ids[from];
+                times[to] = times[from];
+                this.temperature[to] = this.temperature[from];
+                this.heartRate[to] = this.heartRate[from];
+                this.oxygen[to] = this.oxygen[from];
+                this.humidity[to] = this.humidity[from];
+                this.roomTemperature[to] = this.roomTemperature[from];
+                index--;
+            }
+            int at = slot(index);
+            ids[at] = id;
+            times[at] = time;
+            this.temperature[at] = temperature;
+            this.heartRate[at] = heartRate;
+            this.oxygen[at] = oxygen;
+            this.humidity[at] = humidity;
+            this.roomTemperature[at] = roomTemperature;
+            size++;
+        }
+
+        private static boolean before(long time, long id, long otherTime, long otherId) {
+            return time < otherTime || (time == otherTime && id < otherId);
+        }
+
+        private void dropOldest() {
+            coveredFrom = Math.max(coveredFrom, times[head] + 1);
+            head = slot(1);
+            size--;
+        }
+
+        private void grow() {
+            long[] oldIds = ids;
+            long[] oldTimes = times;
+            double[] oldTemperature = temperature;
+            int[] oldHeartRate = heartRate;
+            int[] oldOxygen = oxygen;
+            double[] oldHumidity = humidity;
+            double[] oldRoomTemperature = roomTemperature;
+            int oldHead = head;
+            int oldLength = oldTimes.length;
+            allocate(Math.min(capacity, Math.max(1, oldLength * 2)));
+            for (int i = 0; i < size; i++) {
+                int from = oldHead + i >= oldLength ? oldHead + i - oldLength : oldHead + i;
+                ids[i] = oldIds[from];
+                times[i] = oldTimes[from];
+                temperature[i] = oldTemperature[from];
+                heartRate[i] = oldHeartRate[from];
+                oxygen[i] = oldOxygen[from];
+                humidity[i] = oldHumidity[from];
+                roomTemperature[i] = oldRoomTemperature[from];
+            }
+            head = 0;
+        }
+
+        synchronized List<MeasurementView> page(long from, long beforeTime, long beforeId, int limit) {
+            List<MeasurementView> rows = new ArrayList<>(Math.min(limit, size));
+            // Skip rows at or after the cursor
+            int index = size - 1;
+            while (index >= 0 && !before(times[slot(index)], ids[slot(index)], beforeTime, beforeId)) {
+                index--;
+            }
+            for (; index >= 0 && rows.size() < limit; index--) {
+                int at = slot(index);
+                if (times[at] < from) {
+                    return rows;
+                }
+                if (times[at] < coveredFrom) {
+                    return null;
+                }
+                rows.add(new MeasurementView(ids[at], temperature[at], heartRate[at], oxygen[at], humidity[at],
+                        roomTemperature[at], toDate(times[at])));
+            }
+            return rows.size() == limit || from >= coveredFrom ? rows : null;
+        }
+
+        synchronized List<RollupPoint> rollups(RollupResolution resolution, long from, long to) {
+            if (from < coveredFrom) {
+                return null;
+            }
+            long width = bucketMicros(resolution);
+            List<RollupPoint> points = new ArrayList<>();
+            long bucket = Long.MIN_VALUE;
+            long count = 0;
+            double[] min = new double[5];
+            double[] max = new double[5];
+            double[] sum = new double[5];
+            for (int i = 0; i < size; i++) {
+                int at = slot(i);
+                long time = times[at];
+                if (time < from || time >= to) {
+                    continue;
+                }
+                long start = time - Math.floorMod(time, width);
+                if (start != bucket) {
+                    if (count > 0) {
+                        points.add(point(resolution, bucket, count, min, max, sum));
+                    }
+                    bucket = start;
+                    count = 0;
+                    Arrays.fill(min, Double.MAX_VALUE);
+                    Arrays.fill(max, -Double.MAX_VALUE);
+                    Arrays.fill(sum, 0);
+                }
+                count++;
+                accumulate(0, temperature[at], min, max, sum);
+                accumulate(1, heartRate[at], min, max, sum);
+                accumulate(2, oxygen[at], min, max, sum);
+                accumulate(3, humidity[at], min, max, sum);
+                accumulate(4, roomTemperature[at], min, max, sum);
+            }
+            if (count > 0) {
+                points.add(point(resolution, bucket, count, min, max, sum));
+            }
+            return points;
+        }
+
+        private static void accumulate(int vital, double value, double[] min, double[] max, double[] sum) {
+            min[vital] = Math.min(min[vital], value);
+            max[vital] = Math.max(max[vital], value);
+            sum[vital] += value;
+        }
+
+        private RollupPoint point(RollupResolution resolution, long bucket, long count,
+                                  double[] min, double[] max, double[] sum) {
+            RollupPoint.Stat[] stats = new RollupPoint.Stat[5];
+            for (int v = 0; v < stats.length; v++) {
+                stats[v] = new RollupPoint.Stat(min[v], max[v], sum[v] / count);
+            }
+            return new RollupPoint(toDate(bucket), resolution, count, stats[0], stats[1], stats[2], stats[3], stats[4]);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.exception.IngestOverloadedException;
+import com.health_monitoring_systems.exception.RateLimitExceededException;
+import com.health_monitoring_systems.model.SensorData;
+import com.health_monitoring_systems.model.SensorSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for the unauthenticated ingest endpoints ({@code /data} and
+ * {@code /measurements/}). Each device and each user gets a token bucket, so one flooding client
+ * is turned away with 429 without touching anyone else's budget. Separately, when too many ingest
+ * requests are in flight at once, work is shed by priority: samples that only repeat the reading
+ * the device sent a moment before go first, then ordinary samples; readings outside the alert
+ * limits are always let through.
+ */
+@Component
+public class IngestAdmission {
+
+    public enum Priority {
+        /** Outside the absolute alert limits; never shed. */
+        ALERT,
+        NORMAL,
+        /** Repeats the device's previous reading within a short interval, or can be retried later. */
+        REDUNDANT
+    }
+
+    private final RateLimiter deviceLimiter;
+    private final RateLimiter userLimiter;
+    private final LiveStateRegistry registry;
+    private final VitalsAnomalyDetector anomalyDetector;
+    private final int maxInFlight;
+    private final int redundantShedThreshold;
+    private final long redundantIntervalMillis;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter deviceRateLimited;
+    private final Counter userRateLimited;
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+
+    public IngestAdmission(LiveStateRegistry registry,
+                           VitalsAnomalyDetector anomalyDetector,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.ingest.device.permits-per-second:10}") double devicePermitsPerSecond,
+                           @Value("${app.ingest.device.burst:50}") int deviceBurst,
+                           @Value("${app.ingest.user.permits-per-second:5}") double userPermitsPerSecond,
+                           @Value("${app.ingest.user.burst:20}") int userBurst,
+                           @Value("${app.ingest.limiter.slots:65536}") int slots,
+                           @Value("${app.ingest.shed.max-in-flight:64}") int maxInFlight,
+                           @Value("${app.ingest.shed.redundant-interval-ms:1000}") long redundantIntervalMillis) {
+        this.registry = registry;
+        this.anomalyDetector = anomalyDetector;
+        this.deviceLimiter = new RateLimiter(devicePermitsPerSecond, deviceBurst, slots);
+        this.userLimiter = new RateLimiter(userPermitsPerSecond, userBurst, slots);
+        this.maxInFlight = maxInFlight;
+        // Redundant samples are dropped from half load, well before ordinary ones
+        this.redundantShedThreshold = Math.max(1, maxInFlight / 2);
+        this.redundantIntervalMillis = redundantIntervalMillis;
+
+        Gauge.builder("ingest.in.flight", inFlight, AtomicInteger::get)
+                .description("Ingest requests currently being processed")
+                .register(meterRegistry);
+        this.deviceRateLimited = rejected(meterRegistry, "rate_limited", "device");
+        this.userRateLimited = rejected(meterRegistry, "rate_limited", "user");
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, Counter.builder("ingest.shed")
+                    .description("Samples dropped because ingest was overloaded")
+                    .tag("priority", priority.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason, String scope) {
+        return Counter.builder("ingest.rejected")
+                .description("Ingest requests refused before processing")
+                .tag("reason", reason)
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Charges {@code samples} to the device's bucket.
+     *
+     * @throws RateLimitExceededException if the device is over its rate
+     */
+    public void acquireDevice(String deviceId, int samples) {
+        long waitNanos = deviceLimiter.tryAcquire(deviceId, samples);
+        if (waitNanos > 0) {
+            deviceRateLimited.increment();
+            throw new RateLimitExceededException("Rate limit exceeded for device " + deviceId, retryAfterSeconds(waitNanos));
+        }
+    }
+
+    /** Like {@link #acquireDevice}, for callers that drop rather than answer over-limit samples. */
+    public boolean tryAcquireDevice(String deviceId, int samples) {
+        if (deviceLimiter.tryAcquire(deviceId, samples) > 0) {
+            deviceRateLimited.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Charges one request to the user's bucket.
+     *
+     * @throws RateLimitExceededException if the user is over their rate
+     */
+    public void acquireUser(String email) {
+        long waitNanos = userLimiter.tryAcquire(userKey(email), 1);
+        if (waitNanos > 0) {
+            userRateLimited.increment();
+            throw new RateLimitExceededException("Rate limit exceeded for " + email, retryAfterSeconds(waitNanos));
+        }
+    }
+
+    /**
+     * Charges one request to each user's bucket, or to none of them.
+     *
+     * @throws RateLimitExceededException if any of the users is over their rate
+     */
+    public void acquireUsers(Collection<String> emails) {
+        List<String> charged = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            String key = userKey(email);
+            long waitNanos = userLimiter.tryAcquire(key, 1);
+            if (waitNanos > 0) {
+                charged.forEach(k -> userLimiter.refund(k, 1));
+                userRateLimited.increment();
+                throw new RateLimitExceededException("Rate limit exceeded for " + email, retryAfterSeconds(waitNanos));
+            }
+            charged.add(key);
+        }
+    }
+
+    private static String userKey(String email) {
+        return email == null ? "" : email;
+    }
+
+    /** Marks an ingest request as in flight; pair with {@link #exit()} in a finally block. */
+    public void enter() {
+        inFlight.incrementAndGet();
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    /** {@link #classify(String, SensorData, long)} for a sample taken now. */
+    public Priority classify(String deviceId, SensorData data) {
+        return classify(deviceId, data, System.currentTimeMillis());
+    }
+
+    /**
+     * Priority of a sample the device took at {@code sampledAt}: redundant when it repeats the
+     * device's latest reading within {@code redundant-interval-ms} of it.
+     */
+    public Priority classify(String deviceId, SensorData data, long sampledAt) {
+        if (anomalyDetector.outsideLimits(data)) {
+            return Priority.ALERT;
+        }
+        SensorSnapshot latest = registry.latest(deviceId);
+        if (latest != null && Math.abs(sampledAt - latest.getTimestamp()) < redundantIntervalMillis
+                && sameReading(latest, data)) {
+            return Priority.REDUNDANT;
+        }
+        return Priority.NORMAL;
+    }
+
+    // Same to anyone looking at it: whole bpm and SpO2, body temperature to a tenth of a degree
+    private static boolean sameReading(SensorSnapshot latest, SensorData data) {
+        return Math.round(latest.getBpm()) == Math.round(data.getBpm())
+                && Math.round(latest.getSpo2()) == Math.round(data.getSpo2())
+                && Math.round(latest.getBodyTemperature() * 10) == Math.round(data.getBodyTemperature() * 10);
+    }
+
+    /**
+     * Whether work of this priority should be processed at the current load. A {@code false}
+     * answer is counted as shed.
+     */
+    public boolean admit(Priority priority) {
+        int load = inFlight.get();
+        boolean admitted = switch (priority) {
+            case ALERT -> true;
+            case NORMAL -> load <= maxInFlight;
+            case REDUNDANT -> load <= redundantShedThreshold;
+        };
+        if (!admitted) {
+            shed.get(priority).increment();
+        }
+        return admitted;
+    }
+
+    /**
+     * Like {@link #admit(Priority)}, but for a whole request.
+     *
+     * @throws IngestOverloadedException if the request is shed
+     */
+    public void requireAdmission(Priority priority) {
+        if (!admit(priority)) {
+            throw new IngestOverloadedException("Ingest is overloaded, retry later", 1);
+        }
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
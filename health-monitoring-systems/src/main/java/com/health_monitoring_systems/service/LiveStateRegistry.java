@@ -0,0 +1,243 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.model.SensorData;
+import com.health_monitoring_systems.model.SensorSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latest reading and a short history for every device that is currently sending data.
+ * Writers for different devices never contend; writers for the same device only race on
+ * a single atomic counter.
+ */
+@Component
+public class LiveStateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveStateRegistry.class);
+
+    private static final long MAX_CLOCK_AHEAD_MILLIS = 60_000;
+    private static final long MAX_CLOCK_BEHIND_MILLIS = 24 * 60 * 60 * 1000L;
+    // A device sequence this far behind the last one means the device restarted, not a late frame
+    private static final int RESTART_GAP = 1 << 16;
+
+    private final Map<String, DeviceState> devices = new ConcurrentHashMap<>();
+    // Devices in insertion order; eviction walks it as a clock, giving recently updated devices a second chance
+    private final Queue<DeviceState> evictionOrder = new ConcurrentLinkedQueue<>();
+    private final int maxDevices;
+    private final int historySize;
+    private final long idleTimeoutMillis;
+    private final long restartSilenceMillis;
+
+    public LiveStateRegistry(
+            @Value("${app.live.max-devices:10000}") int maxDevices,
+            @Value("${app.live.history-size:64}") int historySize,
+            @Value("${app.live.idle-timeout-seconds:300}") long idleTimeoutSeconds,
+            @Value("${app.live.restart-silence-ms:2000}") long restartSilenceMillis
+    ) {
+        this.maxDevices = maxDevices;
+        // Round up to a power of two so the ring index is a mask instead of a modulo
+        this.historySize = Integer.highestOneBit(Math.max(1, historySize - 1)) << 1;
+        this.idleTimeoutMillis = idleTimeoutSeconds * 1000;
+        this.restartSilenceMillis = restartSilenceMillis;
+    }
+
+    public SensorSnapshot publish(String deviceId, SensorData data) {
+        return state(deviceId).publish(deviceId, data, System.currentTimeMillis());
+    }
+
+    /**
+     * Publishes a binary frame carrying the device's boot id, its own sequence number and clock.
+     * The sample is stamped with the device time when that is plausible, and a frame that is not
+     * newer than the last one accepted from the device (late, reordered or replayed) is dropped.
+     * <p>
+     * A device restarts its counter on every boot. A new boot id always starts a new run; devices
+     * that send no boot id (0) are taken to have restarted when the counter goes back after they
+     * were silent for longer than {@code app.live.restart-silence-ms}.
+     *
+     * @return the published snapshot, or {@code null} if the frame was dropped
+     */
+    public SensorSnapshot publishFrame(String deviceId, SensorData data, int bootId, long deviceSequence, long deviceTimestamp) {
+        long now = System.currentTimeMillis();
+        long clock = plausibleClock(deviceTimestamp, now);
+        DeviceState state = state(deviceId);
+        if (!state.advance(new DeviceClock(bootId, clock, deviceSequence), now - restartSilenceMillis)) {
+            return null;
+        }
+        return state.publish(deviceId, data, clock != 0 ? clock : now);
+    }
+
+    /**
+     * The time {@link #publishFrame} stamps a frame with: the device's clock when plausible,
+     * otherwise now.
+     */
+    public long sampleTime(long deviceTimestamp) {
+        long now = System.currentTimeMillis();
+        long clock = plausibleClock(deviceTimestamp, now);
+        return clock != 0 ? clock : now;
+    }
+
+    // Devices without a clock send 0; a clock that was never set reads as decades ago
+    private static long plausibleClock(long deviceTimestamp, long now) {
+        return deviceTimestamp >= now - MAX_CLOCK_BEHIND_MILLIS && deviceTimestamp <= now + MAX_CLOCK_AHEAD_MILLIS
+                ? deviceTimestamp : 0;
+    }
+
+    private DeviceState state(String deviceId) {
+        DeviceState state = devices.get(deviceId);
+        if (state == null) {
+            state = devices.computeIfAbsent(deviceId, id -> {
+                DeviceState created = new DeviceState(id, historySize);
+                evictionOrder.add(created);
+                return created;
+            });
+            if (devices.size() > maxDevices) {
+                evictLeastRecentlyUpdated(devices.size() - maxDevices);
+            }
+        }
+        return state;
+    }
+
+    public SensorSnapshot latest(String deviceId) {
+        DeviceState state = devices.get(deviceId);
+        return state == null ? null : state.latest.get();
+    }
+
+    /**
+     * Returns up to {@code limit} recent snapshots for the device, oldest first.
+     */
+    public List<SensorSnapshot> history(String deviceId, int limit) {
+        DeviceState state = devices.get(deviceId);
+        if (state == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        return state.history(Math.min(limit, historySize));
+    }
+
+    public int deviceCount() {
+        return devices.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.live.sweep-interval-ms:30000}")
+    public void evictIdleDevices() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        int before = devices.size();
+        devices.values().removeIf(state -> state.lastUpdate < cutoff);
+        evictionOrder.removeIf(state -> devices.get(state.deviceId) != state);
+        int evicted = before - devices.size();
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle devices from live state", evicted);
+        }
+    }
+
+    private void evictLeastRecentlyUpdated(int count) {
+        // Each device is passed over at most once before its second visit evicts it, so this ends
+        int budget = 2 * evictionOrder.size() + count;
+        while (count > 0 && budget-- > 0) {
+            DeviceState state = evictionOrder.poll();
+            if (state == null) {
+                return;
+            }
+            if (devices.get(state.deviceId) != state) {
+                continue; // already removed by the idle sweep
+            }
+            if (state.referenced) {
+                state.referenced = false;
+                evictionOrder.add(state);
+            } else if (devices.remove(state.deviceId, state)) {
+                count--;
+            }
+        }
+    }
+
+    private static final class DeviceState {
+        private final String deviceId;
+        private final AtomicReferenceArray<SensorSnapshot> ring;
+        private final int mask;
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicReference<SensorSnapshot> latest = new AtomicReference<>();
+        private final AtomicReference<DeviceClock> deviceClock = new AtomicReference<>();
+        private volatile long lastUpdate = System.currentTimeMillis();
+        // Set on every publish, cleared when eviction passes over the device
+        private volatile boolean referenced;
+
+        DeviceState(String deviceId, int capacity) {
+            this.deviceId = deviceId;
+            this.ring = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        boolean advance(DeviceClock next, long silentSince) {
+            while (true) {
+                DeviceClock current = deviceClock.get();
+                if (current != null && !next.isAfter(current) && !next.isRestartAfter(current, lastUpdate < silentSince)) {
+                    return false;
+                }
+                if (deviceClock.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        SensorSnapshot publish(String deviceId, SensorData data, long sampleTime) {
+            long seq = sequence.incrementAndGet();
+            SensorSnapshot snapshot = SensorSnapshot.of(deviceId, seq, sampleTime, data);
+            ring.set((int) (seq & mask), snapshot);
+            // Two concurrent writers may finish out of order; never move latest backwards
+            latest.accumulateAndGet(snapshot, LiveStateRegistry::newer);
+            lastUpdate = System.currentTimeMillis();
+            referenced = true;
+            return snapshot;
+        }
+
+        List<SensorSnapshot> history(int limit) {
+            long last = sequence.get();
+            long first = Math.max(1, last - limit + 1);
+            List<SensorSnapshot> result = new ArrayList<>((int) (last - first + 1));
+            for (long seq = first; seq <= last; seq++) {
+                SensorSnapshot snapshot = ring.get((int) (seq & mask));
+                // Skip slots already overwritten by a newer lap or not yet written
+                if (snapshot != null && snapshot.getSequence() == seq) {
+                    result.add(snapshot);
+                }
+            }
+            return result;
+        }
+    }
+
+    /** Boot id and device time (0 if unknown) and the device's own 32-bit frame counter. */
+    private record DeviceClock(int bootId, long timestamp, long sequence) {
+        boolean isAfter(DeviceClock previous) {
+            if (timestamp != 0 && previous.timestamp != 0 && timestamp != previous.timestamp) {
+                return timestamp > previous.timestamp;
+            }
+            int delta = (int) (sequence - previous.sequence);
+            return delta > 0 || delta < -RESTART_GAP;
+        }
+
+        boolean isRestartAfter(DeviceClock previous, boolean wasSilent) {
+            if (bootId != 0 && previous.bootId != 0) {
+                return bootId != previous.bootId;
+            }
+            // No boot ids to compare: a reboot and reconnect takes longer than the device's send interval
+            return wasSilent && sequence != previous.sequence;
+        }
+    }
+
+    private static SensorSnapshot newer(SensorSnapshot current, SensorSnapshot candidate) {
+        return current == null || current.getSequence() < candidate.getSequence() ? candidate : current;
+    }
+}
@@ -0,0 +1,232 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.DeviceOwner;
+import com.health_monitoring_systems.dto.MeasurementRequest;
+import com.health_monitoring_systems.model.SensorData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records the live stream of linked devices into {@code user_measurements} without the app
+ * being open. Samples are folded into a fixed window per device (sum, min, max, count), which
+ * costs a few arithmetic operations on the ingest path. A scheduled pass turns finished windows
+ * into one row each, resolves the device's owner and hands the rows to the write-behind buffer.
+ */
+@Component
+public class LiveStreamRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveStreamRecorder.class);
+
+    private final Map<String, DeviceWindow> windows = new ConcurrentHashMap<>();
+    private final Queue<ClosedWindow> closed = new ConcurrentLinkedQueue<>();
+    private final Map<String, CachedOwner> owners = new ConcurrentHashMap<>();
+    private final DeviceService deviceService;
+    private final MeasurementWriteBehindBuffer writeBuffer;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int minSamples;
+    private final long ownerCacheMillis;
+    private final long idleTimeoutMillis;
+    private final Counter recorded;
+    private final Counter unlinked;
+    private final Counter dropped;
+
+    public LiveStreamRecorder(DeviceService deviceService,
+                              MeasurementWriteBehindBuffer writeBuffer,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.recorder.enabled:true}") boolean enabled,
+                              @Value("${app.recorder.window-seconds:60}") long windowSeconds,
+                              @Value("${app.recorder.min-samples:5}") int minSamples,
+                              @Value("${app.recorder.owner-cache-seconds:60}") long ownerCacheSeconds,
+                              @Value("${app.live.idle-timeout-seconds:300}") long idleTimeoutSeconds) {
+        this.deviceService = deviceService;
+        this.writeBuffer = writeBuffer;
+        this.enabled = enabled;
+        this.windowMillis = windowSeconds * 1000;
+        this.minSamples = Math.max(1, minSamples);
+        this.ownerCacheMillis = ownerCacheSeconds * 1000;
+        this.idleTimeoutMillis = idleTimeoutSeconds * 1000;
+        this.recorded = meterRegistry.counter("recorder.windows", "outcome", "recorded");
+        this.unlinked = meterRegistry.counter("recorder.windows", "outcome", "unlinked");
+        this.dropped = meterRegistry.counter("recorder.windows", "outcome", "dropped");
+    }
+
+    public void record(String deviceId, long timestamp, SensorData data) {
+        if (!enabled) {
+            return;
+        }
+        while (true) {
+            DeviceWindow window = windows.get(deviceId);
+            if (window == null) {
+                window = windows.computeIfAbsent(deviceId, id -> new DeviceWindow());
+            }
+            synchronized (window) {
+                // Dropped by flush while we were waiting for the lock; start over with a fresh window
+                if (!window.removed) {
+                    add(deviceId, window, timestamp, data);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Caller holds the window's lock
+    private void add(String deviceId, DeviceWindow window, long timestamp, SensorData data) {
+        window.lastSeen = timestamp;
+        // Same rule as the app: without a pulse reading nobody is wearing the sensor
+        if (!(data.getBpm() > 0)) {
+            return;
+        }
+        long start = timestamp - Math.floorMod(timestamp, windowMillis);
+        if (start != window.start) {
+            closeWindow(deviceId, window);
+            window.start = start;
+        }
+        window.add(data);
+    }
+
+    @Scheduled(fixedDelayString = "${app.recorder.flush-interval-ms:5000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        windows.forEach((deviceId, window) -> {
+            synchronized (window) {
+                if (window.start + windowMillis <= now) {
+                    closeWindow(deviceId, window);
+                }
+            }
+        });
+        long idleBefore = now - idleTimeoutMillis;
+        for (Map.Entry<String, DeviceWindow> entry : windows.entrySet()) {
+            DeviceWindow window = entry.getValue();
+            synchronized (window) {
+                // Under the lock record() uses, so a sample can't land in a window that is being dropped
+                if (window.samples == 0 && window.lastSeen < idleBefore && windows.remove(entry.getKey(), window)) {
+                    window.removed = true;
+                }
+            }
+        }
+        owners.values().removeIf(owner -> now - owner.resolvedAt > ownerCacheMillis);
+
+        ClosedWindow next;
+        while ((next = closed.poll()) != null) {
+            Long userId = ownerOf(next.deviceId, now);
+            if (userId == null) {
+                unlinked.increment();
+            } else if (writeBuffer.offer(userId, next.request, next.startedAt, next.extremes) == null) {
+                dropped.increment();
+                logger.warn("Measurement buffer is full, dropping recorded window for device {}", next.deviceId);
+            } else {
+                recorded.increment();
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Keep partial windows rather than losing up to a window of data on restart
+        windows.forEach((deviceId, window) -> {
+            synchronized (window) {
+                closeWindow(deviceId, window);
+            }
+        });
+        flush();
+    }
+
+    private void closeWindow(String deviceId, DeviceWindow window) {
+        if (window.samples >= minSamples) {
+            closed.add(window.toClosed(deviceId));
+        }
+        window.reset();
+    }
+
+    private Long ownerOf(String deviceId, long now) {
+        CachedOwner cached = owners.get(deviceId);
+        if (cached == null || now - cached.resolvedAt > ownerCacheMillis) {
+            Long userId = deviceService.findOwner(deviceId).map(DeviceOwner::getUserId).orElse(null);
+            cached = new CachedOwner(userId, now);
+            owners.put(deviceId, cached);
+        }
+        return cached.userId;
+    }
+
+    private record CachedOwner(Long userId, long resolvedAt) {
+    }
+
+    private record ClosedWindow(String deviceId, LocalDateTime startedAt, MeasurementRequest request,
+                                MeasurementWriteBehindBuffer.Extremes extremes) {
+    }
+
+    private static final class DeviceWindow {
+        private long start = Long.MIN_VALUE;
+        private int samples;
+        private double temperatureSum;
+        private double humiditySum;
+        private double bodyTemperatureSum;
+        private double bpmSum;
+        private double spo2Sum;
+        private float bpmMin;
+        private float bpmMax;
+        private float spo2Min;
+        private float spo2Max;
+        private volatile long lastSeen = System.currentTimeMillis();
+        // Set once flush has taken the window out of the map
+        private boolean removed;
+
+        void add(SensorData data) {
+            float bpm = data.getBpm();
+            float spo2 = data.getSpo2();
+            if (samples++ == 0) {
+                bpmMin = bpmMax = bpm;
+                spo2Min = spo2Max = spo2;
+            } else {
+                bpmMin = Math.min(bpmMin, bpm);
+                bpmMax = Math.max(bpmMax, bpm);
+                spo2Min = Math.min(spo2Min, spo2);
+                spo2Max = Math.max(spo2Max, spo2);
+            }
+            temperatureSum += data.getTemperature();
+            humiditySum += data.getHumidity();
+            bodyTemperatureSum += data.getBodyTemperature();
+            bpmSum += bpm;
+            spo2Sum += spo2;
+        }
+
+        void reset() {
+            start = Long.MIN_VALUE;
+            samples = 0;
+            temperatureSum = humiditySum = bodyTemperatureSum = bpmSum = spo2Sum = 0;
+        }
+
+        ClosedWindow toClosed(String deviceId) {
+            MeasurementRequest request = new MeasurementRequest();
+            request.setHeartRate(Math.round((float) (bpmSum / samples)));
+            request.setOxygen(Math.round((float) (spo2Sum / samples)));
+            // Same column mapping the app uses when it saves a measurement
+            request.setTemperature(oneDecimal(temperatureSum / samples));
+            request.setHumidity(oneDecimal(humiditySum / samples));
+            request.setRoomTemperature(oneDecimal(bodyTemperatureSum / samples));
+            MeasurementWriteBehindBuffer.Extremes extremes = new MeasurementWriteBehindBuffer.Extremes(
+                    Math.round(bpmMin), Math.round(bpmMax), Math.round(spo2Min), Math.round(spo2Max), samples);
+            LocalDateTime startedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(start), ZoneId.systemDefault());
+            return new ClosedWindow(deviceId, startedAt, request, extremes);
+        }
+
+        private static double oneDecimal(double value) {
+            return Math.round(value * 10) / 10.0;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.health_monitoring_systems.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.health_monitoring_systems.dto.MeasurementView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's measurement history row by row from a database cursor, so memory use does
+ * not depend on how many rows are exported. MySQL Connector/J only streams a result when the
+ * fetch size is {@code Integer.MIN_VALUE}, which other drivers reject, so unless
+ * {@code app.measurements.export.fetch-size} is set the fetch size is picked per database.
+ */
+@Service
+public class MeasurementExportService {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        /** Case-insensitive lookup of a {@code format} request parameter; {@code null} if unknown. */
+        public static Format parse(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final String CSV_HEADER = "id,dateOfMeasurement,temperature,heartRate,oxygen,humidity,roomTemperature\n";
+    private static final String EXPORT_SQL = "SELECT id, temperature, heart_rate, oxygen, humidity, room_temperature, "
+            + "date_of_measurement FROM user_measurements WHERE user_id = ? "
+            + "AND date_of_measurement >= ? AND date_of_measurement < ? ORDER BY date_of_measurement, id";
+    private static final int DEFAULT_FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+
+    public MeasurementExportService(JdbcTemplate jdbcTemplate,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.measurements.export.fetch-size:0}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    public void export(Long userId, LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                // The connection can't run other statements until the stream is closed
+                try (Stream<MeasurementView> rows = jdbcTemplate.queryForStream(con -> {
+                    PreparedStatement ps = con.prepareStatement(EXPORT_SQL);
+                    ps.setFetchSize(fetchSize(con));
+                    ps.setLong(1, userId);
+                    ps.setTimestamp(2, Timestamp.valueOf(from));
+                    ps.setTimestamp(3, Timestamp.valueOf(to));
+                    return ps;
+                }, (rs, i) -> new MeasurementView(rs.getLong(1), rs.getDouble(2), rs.getInt(3), rs.getInt(4),
+                        rs.getDouble(5), rs.getDouble(6), rs.getTimestamp(7).toLocalDateTime()))) {
+                    if (format == Format.CSV) {
+                        writeCsv(rows.iterator(), out);
+                    } else {
+                        writeNdjson(rows.iterator(), out);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private int fetchSize(Connection con) throws SQLException {
+        if (fetchSize != 0) {
+            return fetchSize;
+        }
+        return "MySQL".equals(con.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : DEFAULT_FETCH_SIZE;
+    }
+
+    private void writeCsv(Iterator<MeasurementView> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write(CSV_HEADER);
+        while (rows.hasNext()) {
+            MeasurementView m = rows.next();
+            writer.write(String.valueOf(m.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(m.getDateOfMeasurement()));
+            writer.write(',');
+            writer.write(Double.toString(m.getTemperature()));
+            writer.write(',');
+            writer.write(Integer.toString(m.getHeartRate()));
+            writer.write(',');
+            writer.write(Integer.toString(m.getOxygen()));
+            writer.write(',');
+            writer.write(Double.toString(m.getHumidity()));
+            writer.write(',');
+            writer.write(Double.toString(m.getRoomTemperature()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<MeasurementView> rows, OutputStream out) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer()
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(out)) {
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+            }
+        }
+        out.write('\n');
+        out.flush();
+    }
+}
@@ -0,0 +1,56 @@
+package com.health_monitoring_systems.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Highest {@code user_measurements.id} that catch-up jobs (rollups, sketches) and sync cursors
+ * may treat as final. Ids are allocated when a row is inserted, not when it commits, so a row can become
+ * visible after rows with higher ids. Every id up to a {@code MAX(id)} observed at least the
+ * grace period ago was allocated before that observation; once every transaction that could
+ * still be holding one of them has had time to commit or roll back, the range is complete.
+ */
+@Component
+public class MeasurementIdHorizon {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long graceMillis;
+    // Calls closer together than this reuse the last observation, so request paths can ask too
+    private final long observeIntervalMillis;
+    // {observedAt, maxId}, oldest first
+    private final Deque<long[]> observations = new ArrayDeque<>();
+
+    public MeasurementIdHorizon(JdbcTemplate jdbcTemplate,
+                                @Value("${app.measurements.commit-grace-seconds:300}") long graceSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.graceMillis = graceSeconds * 1000;
+        this.observeIntervalMillis = graceMillis / 100;
+    }
+
+    /**
+     * Records the current {@code MAX(id)} and returns the newest one observed at least the grace
+     * period ago, or 0 if there is none yet (e.g. right after startup).
+     */
+    public synchronized long safeLimit() {
+        long now = System.currentTimeMillis();
+        if (observations.isEmpty() || now - observations.peekLast()[0] >= observeIntervalMillis) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM user_measurements", Long.class);
+            observations.addLast(new long[]{now, maxId == null ? 0 : maxId});
+        }
+        long cutoff = now - graceMillis;
+        long[] safe = null;
+        // Keep the newest observation past the cutoff and everything after it
+        while (!observations.isEmpty() && observations.peekFirst()[0] <= cutoff) {
+            safe = observations.pollFirst();
+        }
+        if (safe == null) {
+            return 0;
+        }
+        observations.addFirst(safe);
+        return safe[1];
+    }
+}
@@ -0,0 +1,452 @@
+package com.health_monitoring_systems.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.health_monitoring_systems.config.WorkerThreads;
+import com.health_monitoring_systems.dto.MeasurementRequest;
+import com.health_monitoring_systems.exception.ImportNotFoundException;
+import com.health_monitoring_systems.exception.ImportNotResumableException;
+import com.health_monitoring_systems.exception.ImportTooLargeException;
+import com.health_monitoring_systems.model.ImportStatus;
+import com.health_monitoring_systems.model.MeasurementImport;
+import com.health_monitoring_systems.repository.MeasurementImportRepository;
+import com.health_monitoring_systems.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Bulk import of historical measurements from CSV or NDJSON files. The upload is spooled to disk
+ * and processed in the background: users are resolved once per file, rows are inserted with JDBC
+ * batches, and each batch commits together with the job's checkpoint so a failed or interrupted
+ * import can resume where it stopped.
+ *
+ * <p>CSV files need a header naming their columns; {@code dateOfMeasurement} is required,
+ * {@code userEmail} (or {@code email}) is optional, unknown columns such as the export's
+ * {@code id} are ignored. Fields are plain comma-separated values without quoting.
+ */
+@Service
+public class MeasurementImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeasurementImportService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO user_measurements "
+            + "(user_id, temperature, heart_rate, oxygen, humidity, room_temperature, date_of_measurement) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String CHECKPOINT_SQL = "UPDATE measurement_imports SET byte_checkpoint = ?, "
+            + "line_checkpoint = ?, rows_imported = ?, rows_rejected = ?, last_error = ? WHERE id = ?";
+
+    private final MeasurementImportRepository importRepository;
+    private final UserRepository userRepository;
+    private final HotMeasurementWindow hotWindow;
+    private final MeasurementVersions versions;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader requestReader;
+    private final ExecutorService executor;
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+    private final Path directory;
+    private final int batchSize;
+    private final long maxBytes;
+
+    public MeasurementImportService(MeasurementImportRepository importRepository,
+                                    UserRepository userRepository,
+                                    HotMeasurementWindow hotWindow,
+                                    MeasurementVersions versions,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    WorkerThreads workerThreads,
+                                    @Value("${app.import.directory:${java.io.tmpdir}/health-monitoring-imports}") String directory,
+                                    @Value("${app.import.batch-size:5000}") int batchSize,
+                                    @Value("${app.import.workers:1}") int workers,
+                                    @Value("${app.import.max-bytes:1073741824}") long maxBytes) {
+        this.importRepository = importRepository;
+        this.userRepository = userRepository;
+        this.hotWindow = hotWindow;
+        this.versions = versions;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requestReader = objectMapper.readerFor(MeasurementRequest.class);
+        this.executor = Executors.newFixedThreadPool(workers, workerThreads.factory("measurement-import"));
+        this.directory = Path.of(directory);
+        this.batchSize = batchSize;
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Running imports stop at their next batch; the last checkpoint is where they resume
+        executor.shutdownNow();
+    }
+
+    /**
+     * Spools the upload to disk and queues the import.
+     *
+     * @throws ImportTooLargeException if the (decompressed) upload exceeds {@code app.import.max-bytes}
+     */
+    public MeasurementImport startImport(InputStream body, boolean gzip, MeasurementExportService.Format format,
+                                         String defaultEmail) throws IOException {
+        MeasurementImport job = new MeasurementImport();
+        job.setFormat(format);
+        job.setDefaultEmail(defaultEmail);
+        job.setCreatedAt(LocalDateTime.now());
+        job = importRepository.save(job);
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve("import-" + job.getId() + "." + format.name().toLowerCase());
+        try (InputStream in = gzip ? new GZIPInputStream(body, 64 * 1024) : body) {
+            job.setTotalBytes(spool(in, file));
+        } catch (IOException | ImportTooLargeException e) {
+            Files.deleteIfExists(file);
+            job.setStatus(ImportStatus.FAILED);
+            job.setLastError(truncate("Upload failed: " + e.getMessage()));
+            importRepository.save(job);
+            throw e;
+        }
+        job.setFilePath(file.toString());
+        job = importRepository.save(job);
+        submit(job.getId());
+        return job;
+    }
+
+    // Counts decompressed bytes, so a small gzip body can't expand past the limit on disk
+    private long spool(InputStream in, Path file) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new ImportTooLargeException("Import is larger than " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return total;
+    }
+
+    public MeasurementImport getImport(Long id) {
+        return importRepository.findById(id)
+                .orElseThrow(() -> new ImportNotFoundException("Import not found with id: " + id));
+    }
+
+    /**
+     * Queues a failed or interrupted import again; it continues from its last checkpoint.
+     *
+     * @throws ImportNotResumableException if the import has completed or its upload never reached disk
+     */
+    public MeasurementImport resumeImport(Long id) {
+        MeasurementImport job = getImport(id);
+        if (job.getStatus() == ImportStatus.COMPLETED) {
+            throw new ImportNotResumableException("Import " + id + " has already completed");
+        }
+        if (job.getFilePath() == null || !Files.exists(Path.of(job.getFilePath()))) {
+            throw new ImportNotResumableException("Import " + id + " has no uploaded file to resume from; upload it again");
+        }
+        submit(id);
+        return job;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedImports() {
+        importRepository.findByStatusIn(List.of(ImportStatus.QUEUED, ImportStatus.RUNNING))
+                .forEach(job -> submit(job.getId()));
+    }
+
+    private void submit(Long id) {
+        if (active.add(id)) {
+            executor.execute(() -> {
+                try {
+                    run(id);
+                } finally {
+                    active.remove(id);
+                }
+            });
+        }
+    }
+
+    private void run(Long id) {
+        MeasurementImport job = importRepository.findById(id).orElse(null);
+        if (job == null || job.getStatus() == ImportStatus.COMPLETED) {
+            return;
+        }
+        if (job.getFilePath() == null) {
+            // Queued, but the server stopped before the upload was spooled
+            job.setStatus(ImportStatus.FAILED);
+            job.setLastError("Upload did not complete");
+            importRepository.save(job);
+            return;
+        }
+        job.setStatus(ImportStatus.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(LocalDateTime.now());
+        }
+        job = importRepository.save(job);
+        try {
+            process(job);
+            job.setStatus(ImportStatus.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            importRepository.save(job);
+            Files.deleteIfExists(Path.of(job.getFilePath()));
+            logger.info("Import {} finished: {} rows imported, {} rejected", id, job.getRowsImported(), job.getRowsRejected());
+        } catch (Exception e) {
+            logger.error("Import {} failed after {} rows. Root cause: ", id, job.getRowsImported(), e);
+            job.setStatus(ImportStatus.FAILED);
+            job.setLastError(truncate(String.valueOf(e.getMessage())));
+            importRepository.save(job);
+        }
+    }
+
+    private void process(MeasurementImport job) throws IOException {
+        boolean csv = job.getFormat() == MeasurementExportService.Format.CSV;
+        Map<String, Optional<Long>> userIds = new HashMap<>();
+        Long defaultUserId = job.getDefaultEmail() == null ? null : resolveUser(userIds, job.getDefaultEmail());
+
+        try (LineReader lines = new LineReader(Files.newInputStream(Path.of(job.getFilePath())))) {
+            CsvColumns columns = null;
+            if (csv) {
+                String header = lines.next();
+                if (header == null) {
+                    return;
+                }
+                columns = new CsvColumns(header);
+            }
+            if (job.getByteCheckpoint() > lines.position()) {
+                lines.skipTo(job.getByteCheckpoint());
+            }
+
+            long lineNumber = job.getLineCheckpoint();
+            List<PendingRow> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = lines.next()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    MeasurementRequest request = csv ? columns.parse(line) : requestReader.readValue(line);
+                    if (request.getDateOfMeasurement() == null) {
+                        throw new IllegalArgumentException("dateOfMeasurement is required");
+                    }
+                    Long userId = request.getUserEmail() == null ? defaultUserId : resolveUser(userIds, request.getUserEmail());
+                    if (userId == null) {
+                        throw new IllegalArgumentException("Unknown user " +
+                                (request.getUserEmail() != null ? request.getUserEmail() : "(no userEmail and no default email)"));
+                    }
+                    batch.add(new PendingRow(userId, request));
+                } catch (IOException | RuntimeException e) {
+                    job.setRowsRejected(job.getRowsRejected() + 1);
+                    if (job.getLastError() == null) {
+                        job.setLastError(truncate("Line " + lineNumber + ": " + e.getMessage()));
+                    }
+                }
+                if (batch.size() >= batchSize) {
+                    commit(job, batch, lines.position(), lineNumber);
+                    batch.clear();
+                }
+            }
+            commit(job, batch, lines.position(), lineNumber);
+        }
+    }
+
+    private void commit(MeasurementImport job, List<PendingRow> batch, long byteCheckpoint, long lineCheckpoint) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IllegalStateException("Import interrupted by shutdown");
+        }
+        long rowsImported = job.getRowsImported() + batch.size();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, row) -> {
+                    MeasurementRequest request = row.request;
+                    ps.setLong(1, row.userId);
+                    ps.setDouble(2, request.getTemperature());
+                    ps.setInt(3, request.getHeartRate());
+                    ps.setInt(4, request.getOxygen());
+                    ps.setDouble(5, request.getHumidity());
+                    ps.setDouble(6, request.getRoomTemperature());
+                    ps.setTimestamp(7, Timestamp.valueOf(request.getDateOfMeasurement()));
+                });
+            }
+            jdbcTemplate.update(CHECKPOINT_SQL, byteCheckpoint, lineCheckpoint, rowsImported,
+                    job.getRowsRejected(), job.getLastError(), job.getId());
+        });
+        // Imported rows can land anywhere in time; cached windows of these users are reloaded
+        batch.stream().map(PendingRow::userId).distinct().forEach(userId -> {
+            hotWindow.invalidate(userId);
+            versions.bump(userId);
+        });
+        job.setByteCheckpoint(byteCheckpoint);
+        job.setLineCheckpoint(lineCheckpoint);
+        job.setRowsImported(rowsImported);
+    }
+
+    // Unknown emails are cached as empty too, so a file full of them costs one query per address
+    private Long resolveUser(Map<String, Optional<Long>> userIds, String email) {
+        return userIds.computeIfAbsent(email, userRepository::findIdByEmail).orElse(null);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    private record PendingRow(Long userId, MeasurementRequest request) {
+    }
+
+    /** Maps CSV header names to positions once per file. */
+    private static final class CsvColumns {
+        private int email = -1;
+        private int date = -1;
+        private int temperature = -1;
+        private int heartRate = -1;
+        private int oxygen = -1;
+        private int humidity = -1;
+        private int roomTemperature = -1;
+
+        CsvColumns(String header) {
+            String[] names = header.split(",", -1);
+            for (int i = 0; i < names.length; i++) {
+                switch (names[i].trim()) {
+                    case "userEmail", "email" -> email = i;
+                    case "dateOfMeasurement" -> date = i;
+                    case "temperature" -> temperature = i;
+                    case "heartRate" -> heartRate = i;
+                    case "oxygen" -> oxygen = i;
+                    case "humidity" -> humidity = i;
+                    case "roomTemperature" -> roomTemperature = i;
+                    default -> {
+                    }
+                }
+            }
+            if (date < 0) {
+                throw new IllegalArgumentException("CSV header must contain a dateOfMeasurement column");
+            }
+        }
+
+        MeasurementRequest parse(String line) {
+            String[] fields = line.split(",", -1);
+            MeasurementRequest request = new MeasurementRequest();
+            String userEmail = field(fields, email);
+            request.setUserEmail(userEmail == null || userEmail.isEmpty() ? null : userEmail);
+            request.setDateOfMeasurement(LocalDateTime.parse(field(fields, date)));
+            request.setTemperature(number(fields, temperature));
+            request.setHeartRate((int) Math.round(number(fields, heartRate)));
+            request.setOxygen((int) Math.round(number(fields, oxygen)));
+            request.setHumidity(number(fields, humidity));
+            request.setRoomTemperature(number(fields, roomTemperature));
+            return request;
+        }
+
+        private static String field(String[] fields, int index) {
+            return index < 0 || index >= fields.length ? null : fields[index].trim();
+        }
+
+        private static double number(String[] fields, int index) {
+            String value = field(fields, index);
+            return value == null || value.isEmpty() ? 0 : Double.parseDouble(value);
+        }
+    }
+
+    /**
+     * UTF-8 line reader that knows the byte offset of the next line, so checkpoints can be
+     * stored as file positions and resumed with a skip instead of re-reading the file.
+     */
+    private static final class LineReader implements Closeable {
+        private final InputStream in;
+        private final byte[] chunk = new byte[256 * 1024];
+        private byte[] line = new byte[256];
+        private int pos;
+        private int limit;
+        private long position;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        long position() {
+            return position;
+        }
+
+        String next() throws IOException {
+            int length = 0;
+            boolean any = false;
+            while (true) {
+                if (pos == limit) {
+                    limit = in.read(chunk);
+                    pos = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return any ? decode(length) : null;
+                    }
+                }
+                byte b = chunk[pos++];
+                position++;
+                any = true;
+                if (b == '\n') {
+                    return decode(length);
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+        }
+
+        void skipTo(long offset) throws IOException {
+            long remaining = offset - position;
+            int buffered = limit - pos;
+            if (remaining <= buffered) {
+                pos += (int) remaining;
+            } else {
+                pos = limit;
+                in.skipNBytes(remaining - buffered);
+            }
+            position = offset;
+        }
+
+        private String decode(int length) {
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            return new String(line, 0, length, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
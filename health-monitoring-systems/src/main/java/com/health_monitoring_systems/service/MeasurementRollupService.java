@@ -0,0 +1,272 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.RollupPoint;
+import com.health_monitoring_systems.model.RollupCheckpoint;
+import com.health_monitoring_systems.model.RollupResolution;
+import com.health_monitoring_systems.model.UserMeasurements;
+import com.health_monitoring_systems.repository.MeasurementRollupRepository;
+import com.health_monitoring_systems.repository.RollupCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains minute/hour/day min-max-sum-count buckets per user. New measurements bump their
+ * buckets immediately; a background job then recomputes every bucket touched since its last
+ * checkpoint from the raw rows, which also picks up rows written outside
+ * {@link UserMeasurementsService#saveMeasurement} (batch ingest, imports) and repairs drift.
+ * The job only advances to ids {@link MeasurementIdHorizon} reports as final, so rows that
+ * commit after rows with higher ids are not skipped.
+ */
+@Service
+public class MeasurementRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeasurementRollupService.class);
+
+    private static final String CHECKPOINT = "measurement-rollups";
+    private static final String[] VITALS = {"temperature", "heart_rate", "oxygen", "humidity", "room_temperature"};
+    private static final String KEY = " WHERE user_id = ? AND resolution = ? AND bucket_start = ?";
+
+    private static final String INCREMENT_SQL = "UPDATE measurement_rollups SET sample_count = sample_count + 1, "
+            + columns(v -> v + "_min = LEAST(" + v + "_min, ?), " + v + "_max = GREATEST(" + v + "_max, ?), "
+            + v + "_sum = " + v + "_sum + ?") + KEY;
+    private static final String INSERT_SQL = "INSERT INTO measurement_rollups (user_id, resolution, bucket_start, sample_count, "
+            + columns(v -> v + "_min, " + v + "_max, " + v + "_sum")
+            + ") VALUES (?, ?, ?, ?" + ", ?, ?, ?".repeat(VITALS.length) + ")";
+    private static final String DELETE_SQL = "DELETE FROM measurement_rollups" + KEY;
+    private static final String LOCK_SQL = "SELECT id FROM measurement_rollups" + KEY + " FOR UPDATE";
+    private static final String AGGREGATE_RAW_SQL = "SELECT COUNT(*), "
+            + columns(v -> "MIN(" + v + "), MAX(" + v + "), SUM(" + v + ")")
+            + " FROM user_measurements WHERE user_id = ? AND date_of_measurement >= ? AND date_of_measurement < ?";
+    private static final String AGGREGATE_CHILD_SQL = "SELECT SUM(sample_count), "
+            + columns(v -> "MIN(" + v + "_min), MAX(" + v + "_max), SUM(" + v + "_sum)")
+            + " FROM measurement_rollups WHERE user_id = ? AND resolution = ? AND bucket_start >= ? AND bucket_start < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeasurementRollupRepository rollupRepository;
+    private final RollupCheckpointRepository checkpointRepository;
+    private final MeasurementIdHorizon idHorizon;
+    private final int catchUpChunk;
+
+    public MeasurementRollupService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    MeasurementRollupRepository rollupRepository,
+                                    RollupCheckpointRepository checkpointRepository,
+                                    MeasurementIdHorizon idHorizon,
+                                    @Value("${app.rollups.catch-up-chunk:10000}") int catchUpChunk) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A rebuild locks its bucket before aggregating; each aggregate must then see rows committed while it waited
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.rollupRepository = rollupRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.idHorizon = idHorizon;
+        this.catchUpChunk = catchUpChunk;
+    }
+
+    /**
+     * Folds one freshly saved measurement into its minute, hour and day buckets. Call it in the
+     * transaction that inserted the row: a rebuild of the same bucket then either waits for both
+     * and counts the row once, or finishes first and the increment lands on top of it.
+     */
+    public void record(Long userId, UserMeasurements m) {
+        double[] values = {m.getTemperature(), m.getHeartRate(), m.getOxygen(), m.getHumidity(), m.getRoomTemperature()};
+        transactionTemplate.executeWithoutResult(status -> {
+            for (RollupResolution resolution : RollupResolution.values()) {
+                increment(userId, resolution, resolution.bucketStart(m.getDateOfMeasurement()), values);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the buckets containing {@code time} from the raw rows, e.g. after a delete.
+     */
+    public void recompute(Long userId, LocalDateTime time) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (RollupResolution resolution : RollupResolution.values()) {
+                rebuild(userId, resolution, resolution.bucketStart(time));
+            }
+        });
+    }
+
+    /**
+     * The finest resolution that covers the window with no more than {@code maxPoints} buckets,
+     * falling back to days.
+     */
+    public RollupResolution resolutionFor(LocalDateTime from, LocalDateTime to, int maxPoints) {
+        for (RollupResolution resolution : RollupResolution.values()) {
+            if (resolution.bucketsIn(resolution.bucketStart(from), to) <= maxPoints) {
+                return resolution;
+            }
+        }
+        return RollupResolution.DAY;
+    }
+
+    /**
+     * Returns buckets covering the window at the resolution chosen by {@link #resolutionFor}.
+     */
+    public List<RollupPoint> getRollups(Long userId, LocalDateTime from, LocalDateTime to, int maxPoints) {
+        RollupResolution chosen = resolutionFor(from, to, maxPoints);
+        return rollupRepository
+                .findByUserIdAndResolutionAndBucketStartBetweenOrderByBucketStart(userId, chosen, chosen.bucketStart(from), to)
+                .stream()
+                .map(RollupPoint::from)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${app.rollups.catch-up-interval-ms:60000}")
+    public void catchUp() {
+        long limit = idHorizon.safeLimit();
+        while (true) {
+            Integer folded = transactionTemplate.execute(status -> foldChunk(limit));
+            if (folded == null || folded < catchUpChunk) {
+                return;
+            }
+        }
+    }
+
+    private int foldChunk(long limit) {
+        RollupCheckpoint checkpoint = checkpointRepository.findForUpdate(CHECKPOINT)
+                .orElseGet(() -> checkpointRepository.saveAndFlush(new RollupCheckpoint(CHECKPOINT, 0)));
+        long watermark = checkpoint.getLastMeasurementId();
+        if (watermark >= limit) {
+            return 0;
+        }
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, user_id, date_of_measurement FROM user_measurements WHERE id > ? AND id <= ? ORDER BY id LIMIT ?",
+                watermark, limit, catchUpChunk);
+        if (rows.isEmpty()) {
+            checkpoint.setLastMeasurementId(limit);
+            return 0;
+        }
+        Set<Bucket> dirty = new HashSet<>();
+        for (Map<String, Object> row : rows) {
+            Timestamp date = (Timestamp) row.get("date_of_measurement");
+            if (date != null) {
+                LocalDateTime time = date.toLocalDateTime();
+                dirty.add(new Bucket(((Number) row.get("user_id")).longValue(), RollupResolution.MINUTE.bucketStart(time)));
+            }
+        }
+        // Each level is rebuilt from the one below, so parents see the fresh children
+        Set<Bucket> level = dirty;
+        for (RollupResolution resolution = RollupResolution.MINUTE; resolution != null; resolution = resolution.parent()) {
+            Set<Bucket> parents = new HashSet<>();
+            for (Bucket bucket : level) {
+                rebuild(bucket.userId, resolution, bucket.start);
+                if (resolution.parent() != null) {
+                    parents.add(new Bucket(bucket.userId, resolution.parent().bucketStart(bucket.start)));
+                }
+            }
+            level = parents;
+        }
+        // A short chunk means everything up to the limit has been seen
+        long last = rows.size() < catchUpChunk ? limit : ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+        checkpoint.setLastMeasurementId(last);
+        logger.debug("Rolled up measurements up to id {} ({} minute buckets)", last, dirty.size());
+        return rows.size();
+    }
+
+    private void increment(Long userId, RollupResolution resolution, LocalDateTime bucketStart, double[] values) {
+        List<Object> args = new ArrayList<>();
+        for (double value : values) {
+            args.add(value);
+            args.add(value);
+            args.add(value);
+        }
+        args.add(userId);
+        args.add(resolution.name());
+        args.add(Timestamp.valueOf(bucketStart));
+        if (jdbcTemplate.update(INCREMENT_SQL, args.toArray()) > 0) {
+            return;
+        }
+        try {
+            insert(userId, resolution, bucketStart, 1, values, values, values);
+        } catch (DuplicateKeyException e) {
+            // Another writer created the bucket first
+            jdbcTemplate.update(INCREMENT_SQL, args.toArray());
+        }
+    }
+
+    private void rebuild(Long userId, RollupResolution resolution, LocalDateTime bucketStart) {
+        LocalDateTime bucketEnd = resolution.bucketEnd(bucketStart);
+        // Waits for any open transaction that has already bumped this bucket
+        jdbcTemplate.queryForList(LOCK_SQL, Long.class, userId, resolution.name(), Timestamp.valueOf(bucketStart));
+        Object[] aggregate = resolution == RollupResolution.MINUTE
+                ? jdbcTemplate.queryForObject(AGGREGATE_RAW_SQL, (rs, i) -> readRow(rs),
+                        userId, Timestamp.valueOf(bucketStart), Timestamp.valueOf(bucketEnd))
+                : jdbcTemplate.queryForObject(AGGREGATE_CHILD_SQL, (rs, i) -> readRow(rs),
+                        userId, childOf(resolution).name(), Timestamp.valueOf(bucketStart), Timestamp.valueOf(bucketEnd));
+        jdbcTemplate.update(DELETE_SQL, userId, resolution.name(), Timestamp.valueOf(bucketStart));
+        long count = aggregate[0] == null ? 0 : ((Number) aggregate[0]).longValue();
+        if (count == 0) {
+            return;
+        }
+        double[] min = new double[VITALS.length];
+        double[] max = new double[VITALS.length];
+        double[] sum = new double[VITALS.length];
+        for (int i = 0; i < VITALS.length; i++) {
+            min[i] = ((Number) aggregate[1 + i * 3]).doubleValue();
+            max[i] = ((Number) aggregate[2 + i * 3]).doubleValue();
+            sum[i] = ((Number) aggregate[3 + i * 3]).doubleValue();
+        }
+        insert(userId, resolution, bucketStart, count, min, max, sum);
+    }
+
+    private void insert(Long userId, RollupResolution resolution, LocalDateTime bucketStart,
+                        long count, double[] min, double[] max, double[] sum) {
+        List<Object> args = new ArrayList<>();
+        args.add(userId);
+        args.add(resolution.name());
+        args.add(Timestamp.valueOf(bucketStart));
+        args.add(count);
+        for (int i = 0; i < VITALS.length; i++) {
+            args.add(min[i]);
+            args.add(max[i]);
+            args.add(sum[i]);
+        }
+        jdbcTemplate.update(INSERT_SQL, args.toArray());
+    }
+
+    private static Object[] readRow(ResultSet rs) throws SQLException {
+        Object[] row = new Object[1 + VITALS.length * 3];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = rs.getObject(i + 1);
+        }
+        return row;
+    }
+
+    private static RollupResolution childOf(RollupResolution resolution) {
+        return RollupResolution.values()[resolution.ordinal() - 1];
+    }
+
+    private static String columns(Function<String, String> template) {
+        List<String> parts = new ArrayList<>();
+        for (String vital : VITALS) {
+            parts.add(template.apply(vital));
+        }
+        return String.join(", ", parts);
+    }
+
+    private record Bucket(long userId, LocalDateTime start) {
+    }
+}
@@ -0,0 +1,217 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.PercentileResponse;
+import com.health_monitoring_systems.model.MeasurementSketch;
+import com.health_monitoring_systems.model.MeasurementSketch.Vital;
+import com.health_monitoring_systems.model.RollupCheckpoint;
+import com.health_monitoring_systems.repository.MeasurementSketchRepository;
+import com.health_monitoring_systems.repository.RollupCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a {@link VitalHistogram} per user, vital and day in {@code measurement_sketches}. A
+ * background pass folds new rows in by id, starting from the first row so existing history is
+ * backfilled; percentile queries merge the day sketches of the range and add the few rows the
+ * pass has not reached yet, so answers cost the same for a week or years of history. Like the
+ * rollups, the pass only advances to ids {@link MeasurementIdHorizon} reports as final, and it
+ * and {@link #rebuildDay} take turns on the checkpoint row's lock.
+ */
+@Service
+public class MeasurementSketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeasurementSketchService.class);
+
+    private static final String CHECKPOINT = "measurement-sketches";
+    private static final Vital[] VITALS = Vital.values();
+    private static final String VITAL_COLUMNS = "temperature, heart_rate, oxygen, humidity, room_temperature";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeasurementSketchRepository sketchRepository;
+    private final RollupCheckpointRepository checkpointRepository;
+    private final MeasurementIdHorizon idHorizon;
+    private final int catchUpChunk;
+
+    public MeasurementSketchService(JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    MeasurementSketchRepository sketchRepository,
+                                    RollupCheckpointRepository checkpointRepository,
+                                    MeasurementIdHorizon idHorizon,
+                                    @Value("${app.sketches.catch-up-chunk:10000}") int catchUpChunk) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Rows are read after the checkpoint lock is granted and must include what committed while waiting
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.sketchRepository = sketchRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.idHorizon = idHorizon;
+        this.catchUpChunk = catchUpChunk;
+    }
+
+    @Transactional(readOnly = true)
+    public PercentileResponse getPercentiles(Long userId, Vital vital, LocalDate from, LocalDate to, double[] quantiles) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        for (double q : quantiles) {
+            if (q < 0 || q > 1) {
+                throw new IllegalArgumentException("Quantiles must be between 0 and 1, got " + q);
+            }
+        }
+        // Every row up to the checkpoint is in the sketches (it only advances over final ids),
+        // everything after it is added from the raw rows
+        long watermark = checkpointRepository.findById(CHECKPOINT).map(RollupCheckpoint::getLastMeasurementId).orElse(0L);
+        VitalHistogram histogram = new VitalHistogram(vital);
+        for (MeasurementSketch sketch : sketchRepository.findByUserIdAndVitalAndBucketDayBetween(userId, vital, from, to)) {
+            histogram.merge(sketch.getBins());
+        }
+        jdbcTemplate.query("SELECT " + vital.column() + " FROM user_measurements WHERE user_id = ? AND id > ? "
+                        + "AND date_of_measurement >= ? AND date_of_measurement < ?",
+                rs -> {
+                    histogram.add(rs.getDouble(1));
+                }, userId, watermark, Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+
+        List<PercentileResponse.Percentile> percentiles = new ArrayList<>(quantiles.length);
+        for (double q : quantiles) {
+            double value = histogram.quantile(q);
+            percentiles.add(new PercentileResponse.Percentile(q, Double.isNaN(value) ? null : value));
+        }
+        return new PercentileResponse(vital, from, to, histogram.count(), percentiles);
+    }
+
+    /**
+     * Rebuilds the user's sketches for {@code day} from the rows already folded in, e.g. after a
+     * delete. Locks the checkpoint so a concurrent pass can't fold rows in between.
+     */
+    public void rebuildDay(Long userId, LocalDate day) {
+        transactionTemplate.executeWithoutResult(status -> {
+            RollupCheckpoint checkpoint = checkpointRepository.findForUpdate(CHECKPOINT).orElse(null);
+            if (checkpoint == null) {
+                return;
+            }
+            VitalHistogram[] histograms = newHistograms();
+            jdbcTemplate.query("SELECT " + VITAL_COLUMNS + " FROM user_measurements WHERE user_id = ? AND id <= ? "
+                            + "AND date_of_measurement >= ? AND date_of_measurement < ?",
+                    rs -> {
+                        addRow(histograms, rs, 1);
+                    }, userId, checkpoint.getLastMeasurementId(), Timestamp.valueOf(day.atStartOfDay()), Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+            Map<Vital, MeasurementSketch> existing = existing(userId, day);
+            for (Vital vital : VITALS) {
+                write(userId, day, existing.get(vital), histograms[vital.ordinal()], false);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.sketches.catch-up-interval-ms:60000}")
+    public void catchUp() {
+        long limit = idHorizon.safeLimit();
+        while (true) {
+            Integer folded = transactionTemplate.execute(status -> foldChunk(limit));
+            if (folded == null || folded < catchUpChunk) {
+                return;
+            }
+        }
+    }
+
+    private int foldChunk(long limit) {
+        RollupCheckpoint checkpoint = checkpointRepository.findForUpdate(CHECKPOINT)
+                .orElseGet(() -> checkpointRepository.saveAndFlush(new RollupCheckpoint(CHECKPOINT, 0)));
+        long watermark = checkpoint.getLastMeasurementId();
+        if (watermark >= limit) {
+            return 0;
+        }
+        Map<UserDay, VitalHistogram[]> pending = new HashMap<>();
+        long[] last = {watermark};
+        int rows = jdbcTemplate.query("SELECT id, user_id, date_of_measurement, " + VITAL_COLUMNS
+                        + " FROM user_measurements WHERE id > ? AND id <= ? ORDER BY id LIMIT ?",
+                rs -> {
+                    int count = 0;
+                    while (rs.next()) {
+                        count++;
+                        last[0] = rs.getLong(1);
+                        Timestamp date = rs.getTimestamp(3);
+                        if (date != null) {
+                            UserDay key = new UserDay(rs.getLong(2), date.toLocalDateTime().toLocalDate());
+                            addRow(pending.computeIfAbsent(key, k -> newHistograms()), rs, 4);
+                        }
+                    }
+                    return count;
+                }, watermark, limit, catchUpChunk);
+        pending.forEach((key, histograms) -> {
+            Map<Vital, MeasurementSketch> existing = existing(key.userId, key.day);
+            for (Vital vital : VITALS) {
+                write(key.userId, key.day, existing.get(vital), histograms[vital.ordinal()], true);
+            }
+        });
+        // A short chunk means everything up to the limit has been seen
+        long reached = rows < catchUpChunk ? limit : last[0];
+        checkpoint.setLastMeasurementId(reached);
+        logger.debug("Sketched measurements up to id {} ({} user-days)", reached, pending.size());
+        return rows;
+    }
+
+    private Map<Vital, MeasurementSketch> existing(Long userId, LocalDate day) {
+        Map<Vital, MeasurementSketch> byVital = new HashMap<>();
+        for (MeasurementSketch sketch : sketchRepository.findByUserIdAndBucketDay(userId, day)) {
+            byVital.put(sketch.getVital(), sketch);
+        }
+        return byVital;
+    }
+
+    private void write(Long userId, LocalDate day, MeasurementSketch sketch, VitalHistogram histogram, boolean merge) {
+        if (sketch == null) {
+            if (histogram.count() == 0) {
+                return;
+            }
+            sketch = new MeasurementSketch();
+            sketch.setUserId(userId);
+            sketch.setVital(histogram.vital());
+            sketch.setBucketDay(day);
+        } else if (merge) {
+            histogram.merge(sketch.getBins());
+        }
+        if (histogram.count() == 0) {
+            sketchRepository.delete(sketch);
+            return;
+        }
+        sketch.setSampleCount(histogram.count());
+        sketch.setBins(histogram.encode());
+        sketchRepository.save(sketch);
+    }
+
+    private static VitalHistogram[] newHistograms() {
+        VitalHistogram[] histograms = new VitalHistogram[VITALS.length];
+        for (Vital vital : VITALS) {
+            histograms[vital.ordinal()] = new VitalHistogram(vital);
+        }
+        return histograms;
+    }
+
+    // Reads the five vital columns starting at firstColumn, in VITAL_COLUMNS order
+    private static void addRow(VitalHistogram[] histograms, ResultSet rs, int firstColumn) throws SQLException {
+        for (Vital vital : VITALS) {
+            histograms[vital.ordinal()].add(rs.getDouble(firstColumn + vital.ordinal()));
+        }
+    }
+
+    private record UserDay(long userId, LocalDate day) {
+    }
+}
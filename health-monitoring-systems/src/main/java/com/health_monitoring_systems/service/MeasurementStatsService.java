@@ -0,0 +1,164 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.MeasurementStats;
+import com.health_monitoring_systems.dto.MeasurementStats.VitalStats;
+import com.health_monitoring_systems.model.RollupResolution;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Min/max/mean/stddev and linear trend per vital, computed in the database: one grouped query
+ * returns count, min, max, sum, sum of squares and the time cross-products per bucket, which
+ * are merged here into the range totals.
+ */
+@Service
+public class MeasurementStatsService {
+
+    private static final String[] VITALS = {"temperature", "heart_rate", "oxygen", "humidity", "room_temperature"};
+
+    // s = seconds since the first bucket start, b = bucket index
+    private static final String STATS_SQL = "SELECT b, COUNT(*), SUM(s), SUM(s * s)"
+            + vitals() + " FROM (SELECT FLOOR(TIMESTAMPDIFF(SECOND, ?, date_of_measurement) / ?) AS b, "
+            + "TIMESTAMPDIFF(SECOND, ?, date_of_measurement) AS s, " + String.join(", ", VITALS)
+            + " FROM user_measurements WHERE user_id = ? AND date_of_measurement >= ? AND date_of_measurement < ?) m "
+            + "GROUP BY b ORDER BY b";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxBuckets;
+
+    public MeasurementStatsService(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.measurements.stats.max-buckets:1000}") int maxBuckets) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxBuckets = maxBuckets;
+    }
+
+    private static String vitals() {
+        StringBuilder sql = new StringBuilder();
+        for (String v : VITALS) {
+            sql.append(", MIN(").append(v).append("), MAX(").append(v).append("), SUM(").append(v)
+                    .append("), SUM(").append(v).append(" * ").append(v).append("), SUM(s * ").append(v).append(")");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Stats for {@code [from, to)}; with a {@code resolution}, also per calendar bucket.
+     */
+    @Transactional(readOnly = true)
+    public MeasurementStats getStats(Long userId, LocalDateTime from, LocalDateTime to, RollupResolution resolution) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        LocalDateTime base = resolution != null ? resolution.bucketStart(from) : from;
+        long bucketSeconds;
+        if (resolution == null) {
+            bucketSeconds = Long.MAX_VALUE;
+        } else {
+            if (resolution.bucketsIn(base, to) > maxBuckets) {
+                throw new IllegalArgumentException("Too many " + resolution + " buckets for this range, max is " + maxBuckets);
+            }
+            bucketSeconds = Duration.between(base, resolution.bucketEnd(base)).getSeconds();
+        }
+
+        List<Sums> buckets = new ArrayList<>();
+        List<LocalDateTime> starts = new ArrayList<>();
+        jdbcTemplate.query(STATS_SQL, rs -> {
+            Sums sums = Sums.read(rs);
+            buckets.add(sums);
+            starts.add(base.plusSeconds(rs.getLong(1) * bucketSeconds));
+        }, Timestamp.valueOf(base), bucketSeconds, Timestamp.valueOf(base), userId,
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+        Sums total = new Sums();
+        buckets.forEach(total::merge);
+        MeasurementStats stats = new MeasurementStats(from, to, resolution, total.count,
+                total.stats(0), total.stats(1), total.stats(2), total.stats(3), total.stats(4), null);
+        if (resolution != null) {
+            List<MeasurementStats.Bucket> points = new ArrayList<>(buckets.size());
+            for (int i = 0; i < buckets.size(); i++) {
+                Sums b = buckets.get(i);
+                points.add(new MeasurementStats.Bucket(starts.get(i), b.count,
+                        b.stats(0), b.stats(1), b.stats(2), b.stats(3), b.stats(4)));
+            }
+            stats.setBuckets(points);
+        }
+        return stats;
+    }
+
+    /** Mergeable sufficient statistics for mean, variance and the least-squares slope. */
+    private static final class Sums {
+        private long count;
+        private double sumS;
+        private double sumSS;
+        private final double[] min = new double[VITALS.length];
+        private final double[] max = new double[VITALS.length];
+        private final double[] sum = new double[VITALS.length];
+        private final double[] sumSq = new double[VITALS.length];
+        private final double[] sumSV = new double[VITALS.length];
+
+        Sums() {
+            Arrays.fill(min, Double.MAX_VALUE);
+            Arrays.fill(max, -Double.MAX_VALUE);
+        }
+
+        static Sums read(ResultSet rs) throws SQLException {
+            Sums sums = new Sums();
+            sums.count = rs.getLong(2);
+            sums.sumS = rs.getDouble(3);
+            sums.sumSS = rs.getDouble(4);
+            for (int i = 0; i < VITALS.length; i++) {
+                int column = 5 + i * 5;
+                sums.min[i] = rs.getDouble(column);
+                sums.max[i] = rs.getDouble(column + 1);
+                sums.sum[i] = rs.getDouble(column + 2);
+                sums.sumSq[i] = rs.getDouble(column + 3);
+                sums.sumSV[i] = rs.getDouble(column + 4);
+            }
+            return sums;
+        }
+
+        void merge(Sums other) {
+            count += other.count;
+            sumS += other.sumS;
+            sumSS += other.sumSS;
+            for (int i = 0; i < VITALS.length; i++) {
+                min[i] = Math.min(min[i], other.min[i]);
+                max[i] = Math.max(max[i], other.max[i]);
+                sum[i] += other.sum[i];
+                sumSq[i] += other.sumSq[i];
+                sumSV[i] += other.sumSV[i];
+            }
+        }
+
+        VitalStats stats(int vital) {
+            if (count == 0) {
+                return null;
+            }
+            double mean = sum[vital] / count;
+            double variance = sumSq[vital] / count - mean * mean;
+            // E[x²] - mean² cancels badly for near-constant values; treat rounding residue as zero
+            if (variance <= 1e-12 * mean * mean) {
+                variance = 0;
+            }
+            double sxx = sumSS - sumS * sumS / count;
+            Double trend = null;
+            // Times are whole seconds, so two distinct times give sxx >= 0.5; smaller is rounding noise
+            if (count > 1 && sxx > 0.25) {
+                double sxy = sumSV[vital] - sumS * sum[vital] / count;
+                trend = sxy / sxx * 3600;
+            }
+            return new VitalStats(min[vital], max[vital], mean, Math.sqrt(variance), trend);
+        }
+    }
+}
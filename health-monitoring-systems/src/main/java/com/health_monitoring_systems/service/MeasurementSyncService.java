@@ -0,0 +1,152 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.MeasurementChanges;
+import com.health_monitoring_systems.dto.MeasurementView;
+import com.health_monitoring_systems.exception.SyncCursorExpiredException;
+import com.health_monitoring_systems.model.MeasurementTombstone;
+import com.health_monitoring_systems.repository.MeasurementTombstoneRepository;
+import com.health_monitoring_systems.repository.UserMeasurementsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Delta sync of a user's measurements. The cursor holds the highest measurement id and the
+ * highest tombstone id the client has seen, plus when it was issued; anything newer is a change.
+ * Ids are allocated before commit, so a row can become visible after a higher id was synced: the
+ * cursor also keeps a floor below which every id was final ({@link MeasurementIdHorizon}), and
+ * rows between the floor and the highest synced id are sent again until the floor passes them.
+ * Tombstones made within the commit grace period of the last sync are sent again the same way.
+ * Tombstones older than the retention are pruned, so cursors older than that are refused and
+ * the client starts over with a full sync.
+ */
+@Service
+public class MeasurementSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MeasurementSyncService.class);
+
+    private final UserMeasurementsRepository measurementsRepository;
+    private final MeasurementTombstoneRepository tombstoneRepository;
+    private final MeasurementIdHorizon idHorizon;
+    private final int maxItems;
+    private final int retentionDays;
+    private final long graceMillis;
+
+    public MeasurementSyncService(UserMeasurementsRepository measurementsRepository,
+                                  MeasurementTombstoneRepository tombstoneRepository,
+                                  MeasurementIdHorizon idHorizon,
+                                  @Value("${app.measurements.page.max-size:500}") int maxItems,
+                                  @Value("${app.measurements.sync.tombstone-retention-days:30}") int retentionDays,
+                                  @Value("${app.measurements.commit-grace-seconds:300}") long graceSeconds) {
+        this.measurementsRepository = measurementsRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.idHorizon = idHorizon;
+        this.maxItems = maxItems;
+        this.retentionDays = retentionDays;
+        this.graceMillis = graceSeconds * 1000;
+    }
+
+    /**
+     * Changes to the user's measurements after {@code since}; a null or empty cursor returns
+     * everything, oldest first, in pages of at most the page size. Rows and deletes the client
+     * may already have are repeated, so both are applied idempotently by id.
+     */
+    // Read-write so it runs on the primary: the ETag checked before this call must not be paired
+    // with rows from a replica that hasn't caught up with it yet
+    @Transactional
+    public MeasurementChanges getChanges(Long userId, String since) {
+        long afterId = 0;
+        long floorId = 0;
+        long afterTombstoneId = 0;
+        long issuedAt = 0;
+        if (since != null && !since.isEmpty()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(since), StandardCharsets.UTF_8).split("\\|");
+                afterId = Long.parseLong(parts[0]);
+                // Cursors issued before the floor was added trust the id mark, as they did then
+                floorId = parts.length > 3 ? Long.parseLong(parts[3]) : afterId;
+                afterTombstoneId = Long.parseLong(parts[1]);
+                issuedAt = Long.parseLong(parts[2]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid sync cursor: " + since);
+            }
+            if (issuedAt < System.currentTimeMillis() - retentionDays * 86_400_000L) {
+                throw new SyncCursorExpiredException("Sync cursor is older than " + retentionDays + " days, sync from scratch");
+            }
+        }
+        // Every id up to this was committed (or rolled back) before the queries below run
+        long safeId = idHorizon.safeLimit();
+
+        // Read the tombstone high-water mark first: deletes landing during this call go to the next sync
+        long upToTombstoneId = tombstoneRepository.findMaxId();
+        List<Long> deleted = since == null || since.isEmpty() ? List.of()
+                : tombstoneRepository.findDeletedIds(userId, afterTombstoneId, upToTombstoneId, toDate(issuedAt - graceMillis));
+        List<MeasurementView> added = measurementsRepository.findViewsAddedAfter(userId, afterId, Limit.of(maxItems + 1));
+        boolean hasMore = added.size() > maxItems;
+        if (hasMore) {
+            added = added.subList(0, maxItems);
+        }
+        long lastId = added.isEmpty() ? afterId : added.get(added.size() - 1).getId();
+
+        // Re-send what lies between the floor and the synced mark, with whatever room the page has
+        // left; a row that committed late is among it. New rows always come first, so a large
+        // re-scan can't hold up progress; it shrinks as the floor catches up.
+        long scannedTo = floorId;
+        if (floorId < afterId && added.size() < maxItems) {
+            int room = maxItems - added.size();
+            List<MeasurementView> recent = measurementsRepository.findViewsAddedBetween(userId, floorId, afterId, Limit.of(room));
+            scannedTo = recent.size() < room ? afterId : recent.get(recent.size() - 1).getId();
+            if (!recent.isEmpty()) {
+                List<MeasurementView> merged = new ArrayList<>(recent.size() + added.size());
+                merged.addAll(recent);
+                merged.addAll(added);
+                added = merged;
+            }
+        }
+        if (scannedTo == afterId) {
+            // Both ranges were read in full, so everything from the floor to lastId has been sent
+            scannedTo = lastId;
+        }
+        long nextFloor = Math.max(floorId, Math.min(scannedTo, safeId));
+        return new MeasurementChanges(added, deleted, cursor(lastId, upToTombstoneId, nextFloor), hasMore);
+    }
+
+    /** Deletes the measurement and leaves a tombstone for syncing clients in the same transaction. */
+    @Transactional
+    public void delete(Long userId, Long measurementId) {
+        measurementsRepository.deleteById(measurementId);
+        if (userId != null) {
+            tombstoneRepository.save(new MeasurementTombstone(null, userId, measurementId, LocalDateTime.now()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.measurements.sync.prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneTombstones() {
+        int pruned = tombstoneRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        if (pruned > 0) {
+            logger.info("Pruned {} measurement tombstones older than {} days", pruned, retentionDays);
+        }
+    }
+
+    private static LocalDateTime toDate(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static String cursor(long lastId, long lastTombstoneId, long floorId) {
+        String raw = lastId + "|" + lastTombstoneId + "|" + System.currentTimeMillis() + "|" + floorId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
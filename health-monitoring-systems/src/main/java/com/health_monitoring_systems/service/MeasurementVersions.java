@@ -0,0 +1,99 @@
+package com.health_monitoring_systems.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * In-memory version of each user's measurements, bumped after every committed insert or delete,
+ * so conditional GETs can be answered with 304 before any query runs. Versions live in a fixed
+ * table of slots; users sharing a slot only cost each other a spurious full response, never a
+ * stale 304. ETags carry a per-process epoch, so tags handed out before a restart simply miss.
+ * <p>
+ * Only writes made by this instance move its versions: a write served by another instance leaves
+ * them as they were, and this one would keep answering 304 for data that changed. Disable with
+ * {@code app.measurements.versions.enabled=false} when several instances write for the same
+ * users, including the overlap of a rolling restart; no ETags are issued then.
+ */
+@Component
+public class MeasurementVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final boolean enabled;
+    private final AtomicLongArray versions;
+    private final int mask;
+    // Email lookups for conditional requests by email; skipped once full, like the JWT cache
+    private final Map<String, Long> userIds = new ConcurrentHashMap<>();
+    private final int maxEmails;
+
+    public MeasurementVersions(@Value("${app.measurements.versions.enabled:true}") boolean enabled,
+                               @Value("${app.measurements.versions.slots:65536}") int slots,
+                               @Value("${app.measurements.versions.max-emails:100000}") int maxEmails) {
+        this.enabled = enabled;
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.versions = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.maxEmails = maxEmails;
+    }
+
+    /**
+     * Marks the user's measurements as changed. Inside a transaction the bump waits for the
+     * commit, so a reader can never pair the new version with the old rows.
+     */
+    public void bump(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment(userId);
+                }
+            });
+        } else {
+            increment(userId);
+        }
+    }
+
+    /**
+     * Strong ETag for anything derived only from the user's measurements, or {@code null} when
+     * versions are disabled, which makes conditional requests always get the full response.
+     */
+    public String etag(Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        return "\"" + epoch + "-" + userId + "-" + versions.get(slot(userId)) + "\"";
+    }
+
+    public Long userId(String email, Function<String, Long> lookup) {
+        Long userId = userIds.get(email);
+        if (userId == null) {
+            userId = lookup.apply(email);
+            if (userIds.size() < maxEmails) {
+                userIds.put(email, userId);
+            }
+        }
+        return userId;
+    }
+
+    /** Drops a remembered email, e.g. when a user changes theirs. */
+    public void forgetEmail(String email) {
+        if (email != null) {
+            userIds.remove(email);
+        }
+    }
+
+    private void increment(Long userId) {
+        versions.incrementAndGet(slot(userId));
+    }
+
+    private int slot(Long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
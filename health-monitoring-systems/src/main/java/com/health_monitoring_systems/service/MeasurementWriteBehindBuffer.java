@@ -0,0 +1,257 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.config.WorkerThreads;
+import com.health_monitoring_systems.dto.MeasurementRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of measurements waiting to be written. A single flusher thread drains it
+ * whenever a full batch is available or the flush interval elapses, and writes each batch
+ * with one JDBC batch statement inside one transaction.
+ */
+@Component
+public class MeasurementWriteBehindBuffer {
+
+    public enum Durability {
+        /** Respond once the row is queued; a crash can lose queued rows. */
+        ASYNC,
+        /** Respond once the batch containing the row has committed. */
+        SYNC
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(MeasurementWriteBehindBuffer.class);
+
+    private static final String INSERT_SQL = "INSERT INTO user_measurements "
+            + "(user_id, temperature, heart_rate, oxygen, humidity, room_temperature, date_of_measurement, "
+            + "heart_rate_min, heart_rate_max, oxygen_min, oxygen_max, sample_count) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HotMeasurementWindow hotWindow;
+    private final MeasurementVersions versions;
+    private final BlockingQueue<PendingMeasurement> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Durability durability;
+    private final Timer flushTimer;
+    private final Counter flushedRows;
+    private final Counter failedRows;
+    private final Counter rejectedRows;
+    private final ThreadFactory flusherThreads;
+    private Thread flusher;
+    private volatile boolean running;
+
+    public MeasurementWriteBehindBuffer(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            HotMeasurementWindow hotWindow,
+            MeasurementVersions versions,
+            MeterRegistry meterRegistry,
+            WorkerThreads workerThreads,
+            @Value("${app.measurements.buffer.capacity:50000}") int capacity,
+            @Value("${app.measurements.buffer.batch-size:500}") int batchSize,
+            @Value("${app.measurements.buffer.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${app.measurements.buffer.durability:ASYNC}") Durability durability
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotWindow = hotWindow;
+        this.versions = versions;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.durability = durability;
+        this.flusherThreads = workerThreads.factory("measurement-flusher");
+        this.flushTimer = Timer.builder("measurements.buffer.flush")
+                .description("Time to write one batch of buffered measurements")
+                .register(meterRegistry);
+        this.flushedRows = meterRegistry.counter("measurements.buffer.rows", "outcome", "persisted");
+        this.failedRows = meterRegistry.counter("measurements.buffer.rows", "outcome", "failed");
+        this.rejectedRows = meterRegistry.counter("measurements.buffer.rows", "outcome", "rejected");
+        Gauge.builder("measurements.buffer.pending", queue, BlockingQueue::size)
+                .description("Measurements queued but not yet written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        flusher = flusherThreads.newThread(this::run);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // Whatever is still queued gets written synchronously before the datasource closes
+        List<PendingMeasurement> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        while (!rest.isEmpty()) {
+            List<PendingMeasurement> batch = rest.subList(0, Math.min(batchSize, rest.size()));
+            flush(new ArrayList<>(batch));
+            batch.clear();
+        }
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /** Spread of a row aggregated from several samples. */
+    public record Extremes(int heartRateMin, int heartRateMax, int oxygenMin, int oxygenMax, int sampleCount) {
+    }
+
+    /**
+     * Queues a row for writing. Returns {@code null} when the buffer is full, otherwise a
+     * future that completes once the row's batch has been committed.
+     */
+    public CompletableFuture<Void> offer(Long userId, MeasurementRequest request, LocalDateTime dateOfMeasurement) {
+        return offer(userId, request, dateOfMeasurement, null);
+    }
+
+    public CompletableFuture<Void> offer(Long userId, MeasurementRequest request, LocalDateTime dateOfMeasurement,
+                                         Extremes extremes) {
+        PendingMeasurement pending = new PendingMeasurement(userId, request, dateOfMeasurement, extremes,
+                new CompletableFuture<>());
+        if (queue.offer(pending)) {
+            return pending.done;
+        }
+        rejectedRows.increment();
+        return null;
+    }
+
+    private void run() {
+        List<PendingMeasurement> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingMeasurement next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<PendingMeasurement> batch) {
+        long start = System.nanoTime();
+        try {
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                            new BatchPreparedStatementSetter() {
+                                @Override
+                                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                    bind(ps, batch.get(i));
+                                }
+
+                                @Override
+                                public int getBatchSize() {
+                                    return batch.size();
+                                }
+                            }, keys));
+            publish(batch, keys.getKeyList());
+            flushedRows.increment(batch.size());
+            batch.forEach(pending -> pending.done.complete(null));
+        } catch (Exception e) {
+            logger.error("Failed to flush {} buffered measurements", batch.size(), e);
+            failedRows.increment(batch.size());
+            batch.forEach(pending -> pending.done.completeExceptionally(e));
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, PendingMeasurement pending) throws SQLException {
+        MeasurementRequest request = pending.request;
+        ps.setLong(1, pending.userId);
+        ps.setDouble(2, request.getTemperature());
+        ps.setInt(3, request.getHeartRate());
+        ps.setInt(4, request.getOxygen());
+        ps.setDouble(5, request.getHumidity());
+        ps.setDouble(6, request.getRoomTemperature());
+        ps.setTimestamp(7, Timestamp.valueOf(pending.dateOfMeasurement));
+        Extremes extremes = pending.extremes;
+        if (extremes == null) {
+            for (int i = 8; i <= 12; i++) {
+                ps.setNull(i, Types.INTEGER);
+            }
+        } else {
+            ps.setInt(8, extremes.heartRateMin());
+            ps.setInt(9, extremes.heartRateMax());
+            ps.setInt(10, extremes.oxygenMin());
+            ps.setInt(11, extremes.oxygenMax());
+            ps.setInt(12, extremes.sampleCount());
+        }
+    }
+
+    // Committed rows go to the hot window with their generated ids
+    private void publish(List<PendingMeasurement> batch, List<Map<String, Object>> keys) {
+        boolean keyPerRow = keys.size() == batch.size();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingMeasurement pending = batch.get(i);
+            Object key = keyPerRow ? keys.get(i).values().iterator().next() : null;
+            if (key instanceof Number id) {
+                MeasurementRequest request = pending.request;
+                hotWindow.record(pending.userId, id.longValue(), pending.dateOfMeasurement, request.getTemperature(),
+                        request.getHeartRate(), request.getOxygen(), request.getHumidity(), request.getRoomTemperature());
+            } else {
+                hotWindow.invalidate(pending.userId);
+            }
+            versions.bump(pending.userId);
+        }
+    }
+
+    private record PendingMeasurement(Long userId, MeasurementRequest request, LocalDateTime dateOfMeasurement,
+                                      Extremes extremes, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.health_monitoring_systems.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per key, kept as a single "theoretical arrival time" per slot (GCRA) so a check is
+ * one read and one CAS. Keys hash into a fixed table of slots: memory does not grow with the
+ * number of callers, and the rare keys that share a slot share a budget.
+ */
+class RateLimiter {
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int burst;
+    private final LongSupplier nanoClock;
+    // Times are relative to construction so an untouched slot (0) always reads as "in the past"
+    private final long origin;
+
+    RateLimiter(double permitsPerSecond, int burst, int slotCount) {
+        this(permitsPerSecond, burst, slotCount, System::nanoTime);
+    }
+
+    RateLimiter(double permitsPerSecond, int burst, int slotCount, LongSupplier nanoClock) {
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burst = Math.max(1, burst);
+        this.burstNanos = intervalNanos * this.burst;
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes {@code permits} from the key's bucket (at most a full burst, so oversized requests
+     * still get through on a full bucket).
+     *
+     * @return 0 if the permits were granted, otherwise the nanoseconds until they would be
+     */
+    long tryAcquire(String key, int permits) {
+        int slot = slot(key);
+        long cost = cost(permits);
+        while (true) {
+            long now = nanoClock.getAsLong() - origin;
+            long current = slots.get(slot);
+            long next = Math.max(current, now) + cost;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (slots.compareAndSet(slot, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back permits taken by {@link #tryAcquire} for work that was then refused anyway. The
+     * slot never moves back past a full bucket, so refunds cannot add up to more than one burst.
+     */
+    void refund(String key, int permits) {
+        int slot = slot(key);
+        long cost = cost(permits);
+        while (true) {
+            long now = nanoClock.getAsLong() - origin;
+            long current = slots.get(slot);
+            long next = Math.max(current - cost, now - burstNanos);
+            if (next >= current || slots.compareAndSet(slot, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private int slot(String key) {
+        return spread(key.hashCode()) & mask;
+    }
+
+    private long cost(int permits) {
+        return Math.min(Math.max(1, permits), burst) * intervalNanos;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        return h ^ (h >>> 13);
+    }
+}
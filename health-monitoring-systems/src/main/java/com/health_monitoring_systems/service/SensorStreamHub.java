@@ -0,0 +1,157 @@
+package com.health_monitoring_systems.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.health_monitoring_systems.config.WorkerThreads;
+import com.health_monitoring_systems.model.SensorSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes live readings to everyone watching a device. Each reading is serialized once and the
+ * same frame is handed to every subscriber. A subscriber that cannot keep up only ever receives
+ * the newest frame; intermediate ones are dropped instead of queueing.
+ */
+@Component
+public class SensorStreamHub {
+
+    /** Transport-specific end of a subscription (SSE emitter, WebSocket session, ...). */
+    public interface FrameSink {
+        void send(String frame) throws IOException;
+
+        void ping() throws IOException;
+
+        void close();
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(SensorStreamHub.class);
+
+    private final Map<String, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final ExecutorService sender;
+
+    public SensorStreamHub(ObjectMapper objectMapper,
+                           WorkerThreads workerThreads,
+                           @Value("${app.live.stream.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.sender = Executors.newFixedThreadPool(senderThreads, workerThreads.factory("sensor-stream-sender"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscriptions.values().forEach(set -> set.forEach(Subscription::cancel));
+        sender.shutdownNow();
+    }
+
+    public Subscription subscribe(String deviceId, FrameSink sink, SensorSnapshot initial) {
+        Subscription subscription = new Subscription(deviceId, sink);
+        subscriptions.compute(deviceId, (id, set) -> {
+            Set<Subscription> watchers = set != null ? set : ConcurrentHashMap.newKeySet();
+            watchers.add(subscription);
+            return watchers;
+        });
+        if (initial != null) {
+            subscription.offer(serialize(initial));
+        }
+        return subscription;
+    }
+
+    public void publish(SensorSnapshot snapshot) {
+        Set<Subscription> watchers = subscriptions.get(snapshot.getDeviceId());
+        if (watchers == null || watchers.isEmpty()) {
+            return;
+        }
+        String frame = serialize(snapshot);
+        for (Subscription subscription : watchers) {
+            subscription.offer(frame);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriptions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @Scheduled(fixedDelayString = "${app.live.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        // Idle devices never produce frames, so this is what notices dead connections
+        subscriptions.values().forEach(set -> set.forEach(subscription -> {
+            try {
+                subscription.sink.ping();
+            } catch (IOException | RuntimeException e) {
+                subscription.cancel();
+            }
+        }));
+    }
+
+    private String serialize(SensorSnapshot snapshot) {
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize sensor snapshot", e);
+        }
+    }
+
+    public final class Subscription {
+        private final String deviceId;
+        private final FrameSink sink;
+        private final AtomicReference<String> pending = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private Subscription(String deviceId, FrameSink sink) {
+            this.deviceId = deviceId;
+            this.sink = sink;
+        }
+
+        void offer(String frame) {
+            // Overwrites any frame the sender has not picked up yet
+            pending.set(frame);
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                String frame;
+                while (!cancelled.get() && (frame = pending.getAndSet(null)) != null) {
+                    sink.send(frame);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Dropping stream subscriber for device {}: {}", deviceId, e.getMessage());
+                cancel();
+            } finally {
+                draining.set(false);
+            }
+            // A frame may have arrived between the last poll and releasing the flag
+            if (!cancelled.get() && pending.get() != null && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        public void cancel() {
+            // Heartbeat, sender and transport callbacks can all cancel at once; only the first one tears down
+            if (!cancelled.compareAndSet(false, true)) {
+                return;
+            }
+            subscriptions.computeIfPresent(deviceId, (id, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+            sink.close();
+        }
+    }
+}
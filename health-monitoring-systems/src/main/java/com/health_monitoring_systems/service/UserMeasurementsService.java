@@ -1,15 +1,33 @@
 package com.health_monitoring_systems.service;
 
+import com.health_monitoring_systems.dto.BatchIngestResponse;
+import com.health_monitoring_systems.dto.BatchIngestResponse.Status;
+import com.health_monitoring_systems.dto.MeasurementPage;
 import com.health_monitoring_systems.dto.MeasurementRequest;
+import com.health_monitoring_systems.dto.MeasurementView;
+import com.health_monitoring_systems.dto.RollupPoint;
+import com.health_monitoring_systems.model.RollupResolution;
 import com.health_monitoring_systems.model.User;
 import com.health_monitoring_systems.model.UserMeasurements;
 import com.health_monitoring_systems.repository.UserMeasurementsRepository;
 import com.health_monitoring_systems.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -17,19 +35,70 @@ public class UserMeasurementsService {
 
     private final UserMeasurementsRepository measurementsRepository;
     private final UserRepository userRepository;
+    private final MeasurementWriteBehindBuffer writeBuffer;
+    private final MeasurementRollupService rollupService;
+    private final HotMeasurementWindow hotWindow;
+    private final MeasurementSketchService sketchService;
+    private final MeasurementSyncService syncService;
+    private final MeasurementVersions versions;
+    private final TransactionTemplate transactionTemplate;
 
-    public List<UserMeasurements> getAllByUserEmail(String email) {
-        User user = userRepository.findByEmail(email).orElseThrow(() -> new IllegalArgumentException("User with this email: " + email + " doesn't exists!"));
-        return user.getUserMeasurements();
+    @Value("${app.measurements.buffer.sync-timeout-ms:5000}")
+    private long syncTimeoutMillis;
+
+    @Value("${app.measurements.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${app.measurements.max-clock-ahead-seconds:60}")
+    private long maxClockAheadSeconds;
+
+    // The list reads below answer requests tagged with MeasurementVersions' ETag, which moves when a
+    // write commits on the primary; they stay off the replica so the tag never labels older rows
+
+    @Transactional
+    public List<MeasurementView> getAllByUserEmail(String email) {
+        return measurementsRepository.findViewsByUserId(getUserIdByEmail(email));
     }
 
+    @Transactional
+    public MeasurementPage getHistoryPage(String email, LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        Long userId = getUserIdByEmail(email);
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        LocalDateTime beforeDate = to;
+        long beforeId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                beforeDate = LocalDateTime.parse(parts[0]);
+                beforeId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid history cursor: " + cursor);
+            }
+        }
+        // Fetch one extra row to learn whether another page exists
+        List<MeasurementView> rows = hotWindow.page(userId, from, beforeDate, beforeId, pageSize + 1).orElse(null);
+        if (rows == null) {
+            rows = measurementsRepository.findPage(userId, from, beforeDate, beforeId, Limit.of(pageSize + 1));
+        }
+        if (rows.size() <= pageSize) {
+            return new MeasurementPage(rows, null);
+        }
+        List<MeasurementView> items = rows.subList(0, pageSize);
+        MeasurementView last = items.get(pageSize - 1);
+        String next = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((last.getDateOfMeasurement() + "|" + last.getId()).getBytes(StandardCharsets.UTF_8));
+        return new MeasurementPage(new ArrayList<>(items), next);
+    }
+
+    @Transactional(readOnly = true)
     public UserMeasurements getMeasurement(Long id) {
         return measurementsRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Measurement not found"));
     }
 
-    public List<UserMeasurements> getMeasurementsByUser(Long userId) {
-        return measurementsRepository.findByUserId(userId);
+    @Transactional
+    public List<MeasurementView> getMeasurementsByUser(Long userId) {
+        return measurementsRepository.findViewsByUserId(userId);
     }
 
     public void saveMeasurement(MeasurementRequest measurementRequest) {
@@ -43,12 +112,96 @@ public class UserMeasurementsService {
         measurement.setOxygen(measurementRequest.getOxygen());
         measurement.setHumidity(measurementRequest.getHumidity());
         measurement.setRoomTemperature(measurementRequest.getRoomTemperature());
-        measurement.setDateOfMeasurement(LocalDateTime.now());
+        measurement.setDateOfMeasurement(measuredAt(measurementRequest, LocalDateTime.now()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            measurementsRepository.save(measurement);
+            // Same transaction as the row, so a concurrent bucket rebuild can't count it twice
+            rollupService.record(user.getId(), measurement);
+        });
+        hotWindow.record(user.getId(), measurement.getId(), measurement.getDateOfMeasurement(), measurement.getTemperature(),
+                measurement.getHeartRate(), measurement.getOxygen(), measurement.getHumidity(), measurement.getRoomTemperature());
+        versions.bump(user.getId());
+    }
+
+    @Transactional(readOnly = true)
+    public List<RollupPoint> getRollups(String email, LocalDateTime from, LocalDateTime to, int maxPoints) {
+        Long userId = getUserIdByEmail(email);
+        RollupResolution resolution = rollupService.resolutionFor(from, to, maxPoints);
+        // Recent windows come straight from raw rows, which also covers rows the catch-up job hasn't folded in yet
+        return hotWindow.rollups(userId, resolution, from, to)
+                .orElseGet(() -> rollupService.getRollups(userId, from, to, maxPoints));
+    }
+
+    public Long getUserIdByEmail(String email) {
+        return versions.userId(email, e -> userRepository.findIdByEmail(e)
+                .orElseThrow(() -> new IllegalArgumentException("User with this email: " + e + " doesn't exists!")));
+    }
+
+    public BatchIngestResponse saveMeasurements(List<MeasurementRequest> requests) {
+        BatchIngestResponse response = new BatchIngestResponse();
+        response.setDurability(writeBuffer.getDurability().name());
+        Map<String, Optional<Long>> userIds = new HashMap<>();
+        List<CompletableFuture<Void>> pending = new ArrayList<>(requests.size());
+        String[] rejections = new String[requests.size()];
+        LocalDateTime receivedAt = LocalDateTime.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            MeasurementRequest request = requests.get(i);
+            String email = request.getUserEmail();
+            Optional<Long> userId = email == null ? Optional.empty()
+                    : userIds.computeIfAbsent(email, userRepository::findIdByEmail);
+            CompletableFuture<Void> done = null;
+            if (userId.isEmpty()) {
+                rejections[i] = "User with email " + email + " not found";
+            } else {
+                done = writeBuffer.offer(userId.get(), request, measuredAt(request, receivedAt));
+                if (done == null) {
+                    rejections[i] = "Ingest buffer is full, retry later";
+                }
+            }
+            pending.add(done);
+        }
+
+        boolean sync = writeBuffer.getDurability() == MeasurementWriteBehindBuffer.Durability.SYNC;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(syncTimeoutMillis);
+        for (int i = 0; i < pending.size(); i++) {
+            CompletableFuture<Void> done = pending.get(i);
+            if (done == null) {
+                response.add(i, Status.REJECTED, rejections[i]);
+            } else if (!sync) {
+                response.add(i, Status.ACCEPTED, null);
+            } else {
+                try {
+                    done.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    response.add(i, Status.PERSISTED, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for measurements to persist", e);
+                } catch (Exception e) {
+                    response.add(i, Status.FAILED, "Measurement was not persisted: " + e.getMessage());
+                }
+            }
+        }
+        return response;
+    }
 
-        measurementsRepository.save(measurement);
+    // The client's time when given, like the live path trusting a device clock only while it's plausible
+    private LocalDateTime measuredAt(MeasurementRequest request, LocalDateTime receivedAt) {
+        LocalDateTime date = request.getDateOfMeasurement();
+        return date != null && !date.isAfter(receivedAt.plusSeconds(maxClockAheadSeconds)) ? date : receivedAt;
     }
 
     public void deleteMeasurement(Long id) {
-        measurementsRepository.deleteById(id);
+        UserMeasurements measurement = measurementsRepository.findById(id).orElse(null);
+        syncService.delete(measurement == null ? null : measurement.getUser().getId(), id);
+        if (measurement != null) {
+            hotWindow.invalidate(measurement.getUser().getId());
+            versions.bump(measurement.getUser().getId());
+        }
+        if (measurement != null && measurement.getDateOfMeasurement() != null) {
+            rollupService.recompute(measurement.getUser().getId(), measurement.getDateOfMeasurement());
+            sketchService.rebuildDay(measurement.getUser().getId(), measurement.getDateOfMeasurement().toLocalDate());
+        }
     }
 }
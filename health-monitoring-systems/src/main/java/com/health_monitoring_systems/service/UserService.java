@@ -1,16 +1,23 @@
 package com.health_monitoring_systems.service;
 
+import com.health_monitoring_systems.dto.MeasurementSummary;
+import com.health_monitoring_systems.dto.MeasurementView;
+import com.health_monitoring_systems.dto.UserProfile;
 import com.health_monitoring_systems.exception.UserNotFoundException;
-import com.health_monitoring_systems.model.DoctorDetails;
 import com.health_monitoring_systems.model.User;
 import com.health_monitoring_systems.model.UserDetails;
 
+import com.health_monitoring_systems.repository.UserMeasurementsRepository;
 import com.health_monitoring_systems.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 
 @Service
@@ -18,33 +25,44 @@ public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final DoctorDetailsService doctorDetailsService;
     private final UserRepository userRepository;
+    private final UserMeasurementsRepository measurementsRepository;
     private final PasswordEncoder passwordEncoder;
+    private final MeasurementVersions measurementVersions;
 
     @Autowired
-    public UserService(UserRepository userRepository, DoctorDetailsService doctorDetailsService, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, UserMeasurementsRepository measurementsRepository,
+                       DoctorDetailsService doctorDetailsService, PasswordEncoder passwordEncoder,
+                       MeasurementVersions measurementVersions) {
         this.userRepository = userRepository;
+        this.measurementsRepository = measurementsRepository;
         this.doctorDetailsService = doctorDetailsService;
         this.passwordEncoder = passwordEncoder;
+        this.measurementVersions = measurementVersions;
     }
 
-    public User getUserById(Long id) {
-        User user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
-        if (user.getUserDetails() == null) {
-            UserDetails userDetails = new UserDetails();
-            userDetails.setUser(user);
-            user.setUserDetails(userDetails);
-            userRepository.save(user);
+    /**
+     * Loads the profile with one query. With {@code includeSummary} it also carries the
+     * measurement count and the latest measurement, both answered from the user/date index.
+     */
+    @Transactional(readOnly = true)
+    public UserProfile getProfile(Long id, boolean includeSummary) {
+        User user = userRepository.findProfileById(id).orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
+        UserProfile profile = UserProfile.from(user);
+        if (includeSummary) {
+            List<MeasurementView> latest = measurementsRepository.findLatestViews(id, Limit.of(1));
+            profile.setSummary(new MeasurementSummary(measurementsRepository.countByUserId(id),
+                    latest.isEmpty() ? null : latest.get(0)));
         }
-        return user;
+        return profile;
     }
 
-    public User login (String email, String password){
+    public UserProfile login (String email, String password){
         try {
-            User user = userRepository.findByEmail(email).orElseThrow(() -> new IllegalArgumentException("User with email: " + email + " not found!"));
+            User user = userRepository.findProfileByEmail(email).orElseThrow(() -> new IllegalArgumentException("User with email: " + email + " not found!"));
             if(!passwordEncoder.matches(password, user.getPassword())) {
                 throw new IllegalArgumentException("Wrong credentials");
             }
-            return getUserById(user.getId());
+            return UserProfile.from(user);
         } catch (Exception e) {
             logger.error("Login failed for email: {}. Root cause: ", email, e);
             throw e;
@@ -57,12 +75,13 @@ public class UserService {
         userRepository.save(user);
     }
 
-    public User updateUser(Long id, User userDetails) {
+    public UserProfile updateUser(Long id, User userDetails) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
 
         user.setName(userDetails.getName());
         user.setAge(userDetails.getAge());
+        String previousEmail = user.getEmail();
         user.setEmail(userDetails.getEmail());
 
         if (userDetails.getUserDetails() != null) {
@@ -79,16 +98,16 @@ public class UserService {
         }
 
         // Save user first
-        User savedUser = userRepository.save(user);
+        userRepository.save(user);
+        // The old email must stop resolving to this user for measurement lookups
+        measurementVersions.forgetEmail(previousEmail);
 
         // Handle doctor assignment if doctor details are provided
         if (userDetails.getDoctor() != null) {
             doctorDetailsService.assignDoctorToUser(id, userDetails.getDoctor());
-            // Fetch updated user with doctor information
-            savedUser = userRepository.findById(id).orElse(savedUser);
         }
 
-        return savedUser;
+        return getProfile(id, false);
     }
 
 
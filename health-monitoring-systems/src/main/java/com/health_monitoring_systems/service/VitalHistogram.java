@@ -0,0 +1,100 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.model.MeasurementSketch.Vital;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Fixed-resolution histogram of one vital: one counter per step of the vital's range, so
+ * quantiles are exact to within half a step and histograms merge by adding counters. Stored
+ * sparsely as varint pairs of (gap to the previous non-empty bin, count).
+ */
+public final class VitalHistogram {
+
+    private final Vital vital;
+    private final long[] counts;
+    private long total;
+
+    public VitalHistogram(Vital vital) {
+        this.vital = vital;
+        this.counts = new long[vital.bins()];
+    }
+
+    public void add(double value) {
+        counts[vital.bin(value)]++;
+        total++;
+    }
+
+    public Vital vital() {
+        return vital;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public void merge(byte[] encoded) {
+        if (encoded == null) {
+            return;
+        }
+        int[] pos = {0};
+        int bin = -1;
+        while (pos[0] < encoded.length) {
+            bin += (int) readVarint(encoded, pos);
+            long count = readVarint(encoded, pos);
+            counts[bin] += count;
+            total += count;
+        }
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int previous = -1;
+        for (int bin = 0; bin < counts.length; bin++) {
+            if (counts[bin] != 0) {
+                writeVarint(out, bin - previous);
+                writeVarint(out, counts[bin]);
+                previous = bin;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Nearest-rank quantile, {@code NaN} when empty.
+     */
+    public double quantile(double q) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int bin = 0; bin < counts.length; bin++) {
+            seen += counts[bin];
+            if (seen >= rank) {
+                return vital.value(bin);
+            }
+        }
+        return vital.value(counts.length - 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] in, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
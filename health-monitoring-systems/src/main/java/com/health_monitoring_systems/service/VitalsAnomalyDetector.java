@@ -0,0 +1,184 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.model.SensorData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming anomaly detection on the live vitals. Every device keeps an exponentially weighted
+ * mean and variance per vital, so a sample costs a handful of arithmetic operations and no
+ * allocation. A sample is a breach when it falls outside the absolute limits or deviates from
+ * the device's own baseline by more than {@code z-threshold} standard deviations. An alert
+ * fires after {@code consecutive} breaches in a row and then stays quiet for the cooldown; a
+ * deviating sample is kept out of the baseline until its run reaches {@code consecutive}.
+ */
+@Component
+public class VitalsAnomalyDetector {
+
+    public enum Vital {
+        // The floor keeps a very steady signal from turning tiny wobbles into huge z-scores
+        BPM(2.0),
+        SPO2(0.5),
+        BODY_TEMPERATURE(0.1);
+
+        private final double minStdDev;
+
+        Vital(double minStdDev) {
+            this.minStdDev = minStdDev;
+        }
+    }
+
+    public enum Trigger { BELOW_MIN, ABOVE_MAX, DEVIATION }
+
+    public record Alert(String deviceId, Vital vital, Trigger trigger, float value, double baseline,
+                        double zScore, long timestamp) {
+    }
+
+    private static final Vital[] VITALS = Vital.values();
+
+    private final Map<String, DeviceVitals> devices = new ConcurrentHashMap<>();
+    private final AnomalyAlertNotifier notifier;
+    private final double alpha;
+    private final double zThreshold;
+    private final int warmupSamples;
+    private final int consecutive;
+    private final long cooldownMillis;
+    private final long idleTimeoutMillis;
+    private final double[] min = new double[VITALS.length];
+    private final double[] max = new double[VITALS.length];
+
+    public VitalsAnomalyDetector(AnomalyAlertNotifier notifier,
+                                 @Value("${app.anomaly.alpha:0.05}") double alpha,
+                                 @Value("${app.anomaly.z-threshold:4.0}") double zThreshold,
+                                 @Value("${app.anomaly.warmup-samples:30}") int warmupSamples,
+                                 @Value("${app.anomaly.consecutive:3}") int consecutive,
+                                 @Value("${app.anomaly.cooldown-seconds:600}") long cooldownSeconds,
+                                 @Value("${app.live.idle-timeout-seconds:300}") long idleTimeoutSeconds,
+                                 @Value("${app.anomaly.bpm.min:40}") double bpmMin,
+                                 @Value("${app.anomaly.bpm.max:150}") double bpmMax,
+                                 @Value("${app.anomaly.spo2.min:90}") double spo2Min,
+                                 @Value("${app.anomaly.spo2.max:100}") double spo2Max,
+                                 @Value("${app.anomaly.body-temperature.min:35.0}") double bodyTemperatureMin,
+                                 @Value("${app.anomaly.body-temperature.max:38.5}") double bodyTemperatureMax) {
+        this.notifier = notifier;
+        this.alpha = alpha;
+        this.zThreshold = zThreshold;
+        this.warmupSamples = warmupSamples;
+        this.consecutive = Math.max(1, consecutive);
+        this.cooldownMillis = cooldownSeconds * 1000;
+        this.idleTimeoutMillis = idleTimeoutSeconds * 1000;
+        min[Vital.BPM.ordinal()] = bpmMin;
+        max[Vital.BPM.ordinal()] = bpmMax;
+        min[Vital.SPO2.ordinal()] = spo2Min;
+        max[Vital.SPO2.ordinal()] = spo2Max;
+        min[Vital.BODY_TEMPERATURE.ordinal()] = bodyTemperatureMin;
+        max[Vital.BODY_TEMPERATURE.ordinal()] = bodyTemperatureMax;
+    }
+
+    public void observe(String deviceId, long timestamp, SensorData data) {
+        DeviceVitals state = devices.get(deviceId);
+        if (state == null) {
+            state = devices.computeIfAbsent(deviceId, id -> new DeviceVitals());
+        }
+        synchronized (state) {
+            state.lastSeen = timestamp;
+            check(deviceId, state, Vital.BPM, data.getBpm(), timestamp);
+            check(deviceId, state, Vital.SPO2, data.getSpo2(), timestamp);
+            check(deviceId, state, Vital.BODY_TEMPERATURE, data.getBodyTemperature(), timestamp);
+        }
+    }
+
+    /**
+     * Whether any reading in the sample is outside the absolute limits, i.e. could raise an alert
+     * regardless of the device's baseline.
+     */
+    public boolean outsideLimits(SensorData data) {
+        return outside(Vital.BPM, data.getBpm())
+                || outside(Vital.SPO2, data.getSpo2())
+                || outside(Vital.BODY_TEMPERATURE, data.getBodyTemperature());
+    }
+
+    private boolean outside(Vital vital, float value) {
+        int i = vital.ordinal();
+        return value > 0 && (value < min[i] || value > max[i]);
+    }
+
+    public int deviceCount() {
+        return devices.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.live.sweep-interval-ms:30000}")
+    public void evictIdleDevices() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        devices.values().removeIf(state -> state.lastSeen < cutoff);
+    }
+
+    private void check(String deviceId, DeviceVitals state, Vital vital, float value, long timestamp) {
+        int i = vital.ordinal();
+        // Zero (or NaN) means the sensor has no reading, e.g. no finger on the pulse oximeter
+        if (!(value > 0)) {
+            state.breaches[i] = 0;
+            return;
+        }
+
+        double mean = state.mean[i];
+        double z = 0;
+        Trigger trigger = null;
+        if (value < min[i]) {
+            trigger = Trigger.BELOW_MIN;
+        } else if (value > max[i]) {
+            trigger = Trigger.ABOVE_MAX;
+        }
+        if (state.samples[i] >= warmupSamples) {
+            z = (value - mean) / Math.max(Math.sqrt(state.variance[i]), vital.minStdDev);
+            if (trigger == null && Math.abs(z) > zThreshold) {
+                trigger = Trigger.DEVIATION;
+            }
+        }
+        if (trigger == null) {
+            update(state, i, value);
+            state.breaches[i] = 0;
+            return;
+        }
+        int run = ++state.breaches[i];
+        // An outlier joins the baseline only once the run is confirmed; otherwise the first
+        // samples of a spike inflate the variance enough to hide the rest of it
+        if (trigger != Trigger.DEVIATION || run >= consecutive) {
+            update(state, i, value);
+        }
+        if (run >= consecutive && timestamp - state.lastAlert[i] >= cooldownMillis) {
+            state.lastAlert[i] = timestamp;
+            state.breaches[i] = 0;
+            notifier.submit(new Alert(deviceId, vital, trigger, value, mean, z, timestamp));
+        }
+    }
+
+    private void update(DeviceVitals state, int i, double value) {
+        if (state.samples[i]++ == 0) {
+            state.mean[i] = value;
+            return;
+        }
+        double diff = value - state.mean[i];
+        double increment = alpha * diff;
+        state.mean[i] += increment;
+        state.variance[i] = (1 - alpha) * (state.variance[i] + diff * increment);
+    }
+
+    private static final class DeviceVitals {
+        private final double[] mean = new double[VITALS.length];
+        private final double[] variance = new double[VITALS.length];
+        private final long[] samples = new long[VITALS.length];
+        private final int[] breaches = new int[VITALS.length];
+        private final long[] lastAlert = new long[VITALS.length];
+        private volatile long lastSeen;
+
+        DeviceVitals() {
+            Arrays.fill(lastAlert, Long.MIN_VALUE / 2);
+        }
+    }
+}
@@ -1,27 +1,27 @@
 package com.health_monitoring_systems.service;
 
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import okhttp3.Response;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class WorkoutService {
 
-    private static final OkHttpClient client = new OkHttpClient();
+    private final ExerciseCatalog catalog;
+    private final ObjectMapper mapper;
 
-    @Value("${rapidapi.key}")
-    private String rapidApiKey;
+    public WorkoutService(ExerciseCatalog catalog, ObjectMapper mapper) {
+        this.catalog = catalog;
+        this.mapper = mapper;
+    }
 
     public String getRecommendedWorkouts(int age, String gender, double heartRate) throws IOException {
         List<String> bodyParts = new ArrayList<>();
@@ -40,19 +40,13 @@ public class WorkoutService {
             bodyParts.add("upper legs");
             bodyParts.add("waist");
         } else {
-            return fetchExercises("https://exercisedb.p.rapidapi.com/exercises");
+            return mapper.writeValueAsString(catalog.get(List.of(ExerciseCatalog.ALL)).get(ExerciseCatalog.ALL).exercises());
         }
 
         List<Map<String, Object>> selectedExercises = new ArrayList<>();
-        ObjectMapper mapper = new ObjectMapper();
-
-        for (String part : bodyParts) {
-            String url = "https://exercisedb.p.rapidapi.com/exercises/bodyPart/" + part;
-            String jsonResponse = fetchExercises(url);
-            List<Map<String, Object>> exercisesForPart = mapper.readValue(jsonResponse, new TypeReference<List<Map<String, Object>>>(){});
 
-            Map<String, List<Map<String, Object>>> groupedByEquipment = exercisesForPart.stream()
-                    .collect(Collectors.groupingBy(e -> (String) e.get("equipment")));
+        for (ExerciseCatalog.Entry entry : catalog.get(bodyParts).values()) {
+            Map<String, List<Map<String, Object>>> groupedByEquipment = entry.byEquipment();
 
             addExercisesWithQuota(selectedExercises, groupedByEquipment.get("barbell"), 2);
             addExercisesWithQuota(selectedExercises, groupedByEquipment.get("dumbbell"), 2);
@@ -73,26 +67,18 @@ public class WorkoutService {
         if (sourceList == null || sourceList.isEmpty()) {
             return;
         }
-        Collections.shuffle(sourceList);
-        int limit = Math.min(sourceList.size(), quota);
-        for (int i = 0; i < limit; i++) {
-            mainList.add(sourceList.get(i));
+        // Source lists are shared cache entries, so pick distinct random indices (Floyd's
+        // algorithm) instead of shuffling them in place
+        int size = sourceList.size();
+        int limit = Math.min(size, quota);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<Integer> picked = new HashSet<>();
+        for (int j = size - limit; j < size; j++) {
+            int candidate = random.nextInt(j + 1);
+            picked.add(picked.contains(candidate) ? j : candidate);
         }
-    }
-
-    private String fetchExercises(String url) throws IOException {
-        Request request = new Request.Builder()
-                .url(url)
-                .get()
-                .addHeader("X-RapidAPI-Key", rapidApiKey)
-                .addHeader("X-RapidAPI-Host", "exercisedb.p.rapidapi.com")
-                .build();
-
-        try (Response response = client.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("Unexpected code " + response);
-            }
-            return response.body().string();
+        for (int index : picked) {
+            mainList.add(sourceList.get(index));
         }
     }
 }
@@ -0,0 +1,131 @@
+package com.health_monitoring_systems.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaMonitor monitor;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("routing-primary");
+        replica = database("routing-replica");
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new ReplicaMonitor(primary, replica, Duration.ofSeconds(5), meterRegistry);
+
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, monitor, meterRegistry));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        jdbc = new JdbcTemplate(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // The two databases don't replicate; the test plays the replication stream itself
+        new JdbcTemplate(replica).execute("CREATE TABLE replication_heartbeat (id INT PRIMARY KEY, beat_at TIMESTAMP(3) NOT NULL)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        try {
+            new JdbcTemplate(replica).execute("SHUTDOWN");
+        } catch (RuntimeException ignored) {
+            // already shut down by the test
+        }
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbc.update("INSERT INTO node VALUES (?)", name.substring("routing-".length()));
+        return dataSource;
+    }
+
+    private void replicateHeartbeat(LocalDateTime beatAt) {
+        new JdbcTemplate(replica).update("MERGE INTO replication_heartbeat KEY (id) VALUES (1, ?)", Timestamp.valueOf(beatAt));
+    }
+
+    private String readOnlyNode() {
+        return readOnly.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private String readWriteNode() {
+        return readWrite.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaOnlyWhileItKeepsUp() {
+        replicateHeartbeat(LocalDateTime.now());
+        monitor.check();
+        assertTrue(monitor.isAvailable());
+        assertEquals("replica", readOnlyNode());
+        assertEquals("primary", readWriteNode());
+        assertEquals("primary", jdbc.queryForObject("SELECT name FROM node", String.class));
+
+        replicateHeartbeat(LocalDateTime.now().minusMinutes(1));
+        monitor.check();
+        assertFalse(monitor.isAvailable());
+        assertEquals("primary", readOnlyNode());
+
+        assertEquals(1, meterRegistry.get("datasource.routing").tags("target", "replica", "read.only", "true").counter().count());
+        assertEquals(1, meterRegistry.get("datasource.routing").tags("target", "primary", "read.only", "true").counter().count());
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        replicateHeartbeat(LocalDateTime.now());
+        monitor.check();
+        assertTrue(monitor.isAvailable());
+
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+        monitor.check();
+        assertFalse(monitor.isAvailable());
+        assertTrue(Double.isNaN(monitor.getLagSeconds()));
+        assertEquals("primary", readOnlyNode());
+    }
+
+    @Test
+    void heartbeatIsWrittenToThePrimary() {
+        monitor.check();
+        assertFalse(monitor.isAvailable(), "replica has not seen a heartbeat yet");
+        assertEquals(1, new JdbcTemplate(primary).queryForObject("SELECT COUNT(*) FROM replication_heartbeat", Integer.class));
+    }
+
+    @Test
+    void laterChecksOnlyMoveTheHeartbeat() throws InterruptedException {
+        JdbcTemplate primaryJdbc = new JdbcTemplate(primary);
+        monitor.check();
+        Timestamp first = primaryJdbc.queryForObject("SELECT beat_at FROM replication_heartbeat", Timestamp.class);
+
+        Thread.sleep(5);
+        monitor.check();
+
+        assertEquals(1, primaryJdbc.queryForObject("SELECT COUNT(*) FROM replication_heartbeat", Integer.class));
+        assertTrue(primaryJdbc.queryForObject("SELECT beat_at FROM replication_heartbeat", Timestamp.class).after(first));
+    }
+}
@@ -0,0 +1,135 @@
+package com.health_monitoring_systems.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.health_monitoring_systems.dto.MeasurementChanges;
+import com.health_monitoring_systems.exception.GlobalExceptionHandler;
+import com.health_monitoring_systems.repository.MeasurementSketchRepository;
+import com.health_monitoring_systems.repository.MeasurementTombstoneRepository;
+import com.health_monitoring_systems.repository.RollupCheckpointRepository;
+import com.health_monitoring_systems.repository.UserMeasurementsRepository;
+import com.health_monitoring_systems.service.IngestAdmission;
+import com.health_monitoring_systems.service.MeasurementExportService;
+import com.health_monitoring_systems.service.MeasurementIdHorizon;
+import com.health_monitoring_systems.service.MeasurementImportService;
+import com.health_monitoring_systems.service.MeasurementSketchService;
+import com.health_monitoring_systems.service.MeasurementStatsService;
+import com.health_monitoring_systems.service.MeasurementSyncService;
+import com.health_monitoring_systems.service.MeasurementVersions;
+import com.health_monitoring_systems.service.UserMeasurementsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Request validation of the measurement endpoints: bad client input is a 400, not a 500.
+ */
+class UserMeasurementsControllerTest {
+
+    private static final long USER = 7L;
+
+    private UserMeasurementsService measurementsService;
+    private MeasurementStatsService statsService;
+    private MeasurementSketchService sketchService;
+    private MeasurementSyncService syncService;
+    private MeasurementVersions versions;
+
+    @BeforeEach
+    void setUp() {
+        measurementsService = mock(UserMeasurementsService.class);
+        when(measurementsService.getUserIdByEmail("a@example.com")).thenReturn(USER);
+        statsService = mock(MeasurementStatsService.class);
+        sketchService = mock(MeasurementSketchService.class);
+        syncService = mock(MeasurementSyncService.class);
+        versions = mock(MeasurementVersions.class);
+        when(versions.etag(anyLong())).thenReturn("\"1\"");
+    }
+
+    private MockMvc mvc() {
+        UserMeasurementsController controller = new UserMeasurementsController(measurementsService,
+                mock(MeasurementExportService.class), mock(MeasurementImportService.class), statsService,
+                sketchService, syncService, versions, mock(IngestAdmission.class), new ObjectMapper(), 10_000);
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void malformedHistoryCursorIsABadRequest() throws Exception {
+        when(measurementsService.getHistoryPage(eq("a@example.com"), any(), any(), eq("not-a-cursor"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid history cursor: not-a-cursor"));
+
+        mvc().perform(get("/measurements/history").param("email", "a@example.com").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void statsForAnEmptyOrOversizedRangeAreABadRequest() throws Exception {
+        statsService = new MeasurementStatsService(mock(JdbcTemplate.class), 1000);
+        MockMvc mvc = mvc();
+
+        mvc.perform(get("/measurements/stats").param("email", "a@example.com")
+                        .param("from", "2024-02-01T00:00:00").param("to", "2024-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/measurements/stats").param("email", "a@example.com")
+                        .param("from", "2024-01-01T00:00:00").param("to", "2024-02-01T00:00:00").param("bucket", "MINUTE"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void percentilesForAReversedRangeOrAnOutOfRangeQuantileAreABadRequest() throws Exception {
+        sketchService = new MeasurementSketchService(mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+                mock(MeasurementSketchRepository.class), mock(RollupCheckpointRepository.class),
+                mock(MeasurementIdHorizon.class), 10_000);
+        MockMvc mvc = mvc();
+
+        mvc.perform(get("/measurements/percentiles").param("email", "a@example.com").param("vital", "HEART_RATE")
+                        .param("from", "2024-02-01").param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/measurements/percentiles").param("email", "a@example.com").param("vital", "HEART_RATE")
+                        .param("q", "0.5,1.5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void invalidSyncCursorIsABadRequest() throws Exception {
+        syncService = new MeasurementSyncService(mock(UserMeasurementsRepository.class),
+                mock(MeasurementTombstoneRepository.class), mock(MeasurementIdHorizon.class), 3, 30, 300);
+
+        mvc().perform(get("/measurements/changes").param("email", "a@example.com").param("since", "bm90LWEtY3Vyc29y"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unchangedMeasurementsAreNotModifiedOnlyWhileVersionsAreEnabled() throws Exception {
+        when(syncService.getChanges(USER, null)).thenReturn(new MeasurementChanges(List.of(), List.of(), "c", false));
+        versions = new MeasurementVersions(true, 16, 16);
+        MockMvc mvc = mvc();
+        String etag = mvc.perform(get("/measurements/changes").param("email", "a@example.com"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mvc.perform(get("/measurements/changes").param("email", "a@example.com").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // Another instance may have written since: never claim the client's copy is current
+        versions = new MeasurementVersions(false, 16, 16);
+        mvc().perform(get("/measurements/changes").param("email", "a@example.com").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+}
@@ -0,0 +1,108 @@
+package com.health_monitoring_systems.ingest;
+
+import com.health_monitoring_systems.model.SensorData;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SensorFrameCodecTest {
+
+    /**
+     * The firmware's packed {@code SensorFrame} struct for boot id 0x1234, device "esp32-01",
+     * sequence 7, timestamp 1700000000000, room -5.25 C, humidity 40 %, body 36.6 C,
+     * 72.5 bpm and 97 % SpO2.
+     */
+    private static final byte[] DEVICE_FRAME = {
+            (byte) 0xA5, 0x01, 0x34, 0x12,
+            'e', 's', 'p', '3', '2', '-', '0', '1', 0, 0, 0, 0, 0, 0, 0, 0,
+            0x07, 0x00, 0x00, 0x00,
+            0x00, 0x68, (byte) 0xE5, (byte) 0xCF, (byte) 0x8B, 0x01, 0x00, 0x00,
+            (byte) 0xF3, (byte) 0xFD,
+            (byte) 0xA0, 0x0F,
+            0x4C, 0x0E,
+            (byte) 0xD5, 0x02,
+            (byte) 0xCA, 0x03
+    };
+
+    private static final SensorData DEVICE_DATA = new SensorData(-5.25f, 40f, 36.6f, 72.5f, 97f);
+
+    private static SensorFrame decode(byte[] bytes) {
+        SensorFrame frame = new SensorFrame();
+        SensorFrameCodec.decode(ByteBuffer.wrap(bytes), frame);
+        return frame;
+    }
+
+    @Test
+    void decodesTheFirmwareLayout() {
+        assertEquals(SensorFrameCodec.FRAME_SIZE, DEVICE_FRAME.length);
+
+        SensorFrame frame = decode(DEVICE_FRAME);
+
+        assertEquals("esp32-01", frame.getDeviceId());
+        assertEquals(0x1234, frame.getBootId());
+        assertEquals(7, frame.getSequence());
+        assertEquals(1_700_000_000_000L, frame.getTimestamp());
+        assertEquals(-5.25f, frame.getData().getTemperature());
+        assertEquals(40f, frame.getData().getHumidity());
+        assertEquals(36.6f, frame.getData().getBodyTemperature());
+        assertEquals(72.5f, frame.getData().getBpm());
+        assertEquals(97f, frame.getData().getSpo2());
+    }
+
+    @Test
+    void encodesTheFirmwareLayout() {
+        ByteBuffer buffer = ByteBuffer.allocate(SensorFrameCodec.FRAME_SIZE);
+        SensorFrameCodec.encode(buffer, "esp32-01", 0x1234, 7, 1_700_000_000_000L, DEVICE_DATA);
+        assertArrayEquals(DEVICE_FRAME, buffer.array());
+    }
+
+    @Test
+    void roundTripsTheUnsignedAndFullWidthFields() {
+        String deviceId = "0123456789abcdef"; // all 16 bytes, no NUL terminator
+        SensorData data = new SensorData(-40f, 100f, 42.5f, 6000f, 100f);
+        ByteBuffer buffer = ByteBuffer.allocate(2 * SensorFrameCodec.FRAME_SIZE).order(ByteOrder.BIG_ENDIAN);
+        SensorFrameCodec.encode(buffer, deviceId, 0xFFFF, 0xFFFFFFFFL, 0, data);
+        SensorFrameCodec.encode(buffer, "", 0, 0, -1, data);
+        buffer.flip();
+
+        SensorFrame frame = new SensorFrame();
+        SensorFrameCodec.decode(buffer, frame);
+        assertEquals(deviceId, frame.getDeviceId());
+        assertEquals(0xFFFF, frame.getBootId());
+        assertEquals(0xFFFFFFFFL, frame.getSequence());
+        assertEquals(0, frame.getTimestamp());
+        assertEquals(-40f, frame.getData().getTemperature());
+        assertEquals(6000f, frame.getData().getBpm());
+        assertEquals(SensorFrameCodec.FRAME_SIZE, buffer.position());
+
+        SensorFrameCodec.decode(buffer, frame);
+        assertEquals("", frame.getDeviceId());
+        assertEquals(-1, frame.getTimestamp());
+        assertEquals(0, buffer.remaining());
+        assertEquals(ByteOrder.BIG_ENDIAN, buffer.order(), "caller's byte order is restored");
+    }
+
+    @Test
+    void rejectsTruncatedFrames() {
+        byte[] truncated = new byte[SensorFrameCodec.FRAME_SIZE - 1];
+        System.arraycopy(DEVICE_FRAME, 0, truncated, 0, truncated.length);
+        assertThrows(IllegalArgumentException.class, () -> decode(truncated));
+        assertThrows(IllegalArgumentException.class, () -> decode(new byte[0]));
+    }
+
+    @Test
+    void rejectsUnknownHeaders() {
+        byte[] badMagic = DEVICE_FRAME.clone();
+        badMagic[0] = 0x5A;
+        assertThrows(IllegalArgumentException.class, () -> decode(badMagic));
+
+        byte[] badVersion = DEVICE_FRAME.clone();
+        badVersion[1] = 2;
+        assertThrows(IllegalArgumentException.class, () -> decode(badVersion));
+    }
+}
@@ -0,0 +1,112 @@
+package com.health_monitoring_systems.ingest;
+
+import com.health_monitoring_systems.model.SensorData;
+import com.health_monitoring_systems.service.DataService;
+import com.health_monitoring_systems.service.IngestAdmission;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the listener with a simulated device over a real socket; the ingest pipeline behind it
+ * is replaced by a recorder of the frames it would have received.
+ */
+class SensorIngestServerTest {
+
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+    private SensorIngestServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        DataService dataService = mock(DataService.class);
+        when(dataService.receiveFrames(any(), anyString())).thenAnswer(invocation -> {
+            ByteBuffer frames = invocation.getArgument(0);
+            String fallback = invocation.getArgument(1);
+            SensorFrame frame = new SensorFrame();
+            int count = 0;
+            while (frames.hasRemaining()) {
+                SensorFrameCodec.decode(frames, frame);
+                received.add((frame.getDeviceId().isEmpty() ? fallback : frame.getDeviceId()) + "#" + frame.getSequence());
+                count++;
+            }
+            return count;
+        });
+        IngestAdmission admission = mock(IngestAdmission.class);
+        when(admission.tryAcquireDevice(anyString(), anyInt())).thenReturn(true);
+        meterRegistry = new SimpleMeterRegistry();
+        server = new SensorIngestServer(dataService, admission, meterRegistry, "127.0.0.1", 0, 2, 100, 4, 60);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    void framesSplitAcrossWritesArriveWholeAndInOrder() throws Exception {
+        ByteBuffer frames = ByteBuffer.allocate(10 * SensorFrameCodec.FRAME_SIZE);
+        for (int i = 0; i < 10; i++) {
+            // After the first frame the device leaves its id out; the session remembers it
+            SensorFrameCodec.encode(frames, i == 0 ? "esp32-1" : "", 0, i, 0, new SensorData(22f, 40f, 36.6f, 72f, 97f));
+        }
+        frames.flip();
+        try (SocketChannel device = connect()) {
+            // Odd-sized writes so frames straddle reads
+            while (frames.hasRemaining()) {
+                ByteBuffer chunk = frames.slice(frames.position(), Math.min(17, frames.remaining()));
+                device.write(chunk);
+                frames.position(frames.position() + chunk.position());
+                Thread.sleep(1);
+            }
+            // The counter is bumped after the pipeline returns, so it is the last thing to settle
+            await(() -> meterRegistry.counter("ingest.tcp.frames", "outcome", "ingested").count() == 10);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals("esp32-1#" + i, received.get(i));
+        }
+        assertEquals(10, received.size());
+    }
+
+    @Test
+    void malformedFrameClosesTheConnection() throws Exception {
+        try (SocketChannel device = connect()) {
+            await(() -> server.getSessionCount() == 1);
+            device.write(ByteBuffer.wrap(new byte[SensorFrameCodec.FRAME_SIZE]));
+            assertEquals(-1, device.read(ByteBuffer.allocate(1)));
+        }
+        await(() -> server.getSessionCount() == 0);
+        assertTrue(received.isEmpty());
+        assertEquals(1, meterRegistry.counter("ingest.tcp.malformed").count());
+    }
+
+    private SocketChannel connect() throws IOException {
+        return SocketChannel.open(new InetSocketAddress("127.0.0.1", server.getPort()));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.config.WorkerThreads;
+import com.health_monitoring_systems.service.VitalsAnomalyDetector.Alert;
+import com.health_monitoring_systems.service.VitalsAnomalyDetector.Trigger;
+import com.health_monitoring_systems.service.VitalsAnomalyDetector.Vital;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnomalyAlertNotifierTest {
+
+    private static Alert alert(String deviceId) {
+        return new Alert(deviceId, Vital.BPM, Trigger.ABOVE_MAX, 160f, 70, 0, System.currentTimeMillis());
+    }
+
+    @Test
+    void alertsBeyondTheQueueAreDroppedWithoutBlockingTheCaller() throws Exception {
+        DeviceService deviceService = mock(DeviceService.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(deviceService.findOwner(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return Optional.empty();
+        });
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AnomalyAlertNotifier notifier = new AnomalyAlertNotifier(deviceService, mock(EmailService.class),
+                meterRegistry, WorkerThreads.platform(), 1);
+        try {
+            notifier.submit(alert("esp32-1"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            notifier.submit(alert("esp32-2")); // queued behind the one being delivered
+            notifier.submit(alert("esp32-3")); // queue full: dropped
+
+            release.countDown();
+            verify(deviceService, timeout(5000)).findOwner("esp32-2");
+            verify(deviceService, times(2)).findOwner(anyString());
+            assertEquals(2, meterRegistry.counter("sensor.anomaly.alerts", "vital", "BPM", "trigger", "ABOVE_MAX").count());
+        } finally {
+            release.countDown();
+            notifier.shutdown();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.config.WorkerThreads;
+import com.health_monitoring_systems.model.EmailOutbox;
+import com.health_monitoring_systems.model.EmailStatus;
+import com.health_monitoring_systems.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxDispatcherTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private JavaMailSender mailSender;
+    private EmailOutboxRepository repository;
+    private EmailService emailService;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+        repository = mock(EmailOutboxRepository.class);
+        emailService = new EmailService(mailSender, repository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(emailService, "officialFromEmail", "reports@example.com");
+        dispatcher = new EmailOutboxDispatcher(repository, emailService, new SimpleMeterRegistry(), WorkerThreads.platform(),
+                1, 10, MAX_ATTEMPTS, 30_000, 3_600_000, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    private static EmailOutbox email(long id, String to, int attempts) {
+        EmailOutbox email = new EmailOutbox();
+        email.setId(id);
+        email.setFromName("Dr. Example");
+        email.setReplyTo("doctor@example.com");
+        email.setToAddress(to);
+        email.setSubject("Health report");
+        email.setBody("All good");
+        email.setStatus(EmailStatus.SENDING);
+        email.setAttempts(attempts);
+        return email;
+    }
+
+    @Test
+    void invalidMessageFailsAloneInsteadOfAbortingItsBatch() {
+        Map<Long, Exception> failures = emailService.deliver(List.of(email(1, "patient@example.com", 0), email(2, null, 0)));
+
+        assertEquals(1, failures.size());
+        assertInstanceOf(IllegalArgumentException.class, failures.get(2L));
+        ArgumentCaptor<MimeMessage[]> sent = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailSender).send(sent.capture());
+        assertEquals(1, sent.getValue().length);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void poisonMessageIsRetriedThenFailedWhileItsBatchGoesOut() {
+        EmailOutbox good = email(1, "patient@example.com", 0);
+        EmailOutbox retry = email(2, " ", 0);
+        EmailOutbox last = email(3, null, MAX_ATTEMPTS - 1);
+        when(repository.findDueIds(eq(EmailStatus.PENDING), any(), any())).thenReturn(List.of(1L, 2L, 3L), List.of());
+        when(repository.claim(any(), any())).thenReturn(1);
+        when(repository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(good, retry, last));
+
+        dispatcher.dispatch();
+
+        ArgumentCaptor<List<EmailOutbox>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository, timeout(5000)).saveAll(saved.capture());
+        assertEquals(EmailStatus.SENT, good.getStatus());
+        assertNull(good.getLastError());
+        assertEquals(EmailStatus.PENDING, retry.getStatus());
+        assertEquals(1, retry.getAttempts());
+        assertTrue(retry.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(EmailStatus.FAILED, last.getStatus());
+        assertEquals(MAX_ATTEMPTS, last.getAttempts());
+    }
+
+    @Test
+    void staleClaimsCountAsAnAttempt() {
+        when(repository.findDueIds(any(), any(), any())).thenReturn(List.of());
+
+        dispatcher.dispatch();
+
+        verify(repository).failStale(any(), eq(MAX_ATTEMPTS));
+        verify(repository).releaseStale(any(), eq(MAX_ATTEMPTS));
+    }
+}
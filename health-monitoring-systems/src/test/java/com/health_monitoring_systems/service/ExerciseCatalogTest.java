@@ -0,0 +1,102 @@
+package com.health_monitoring_systems.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.health_monitoring_systems.config.WorkerThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExerciseCatalogTest {
+
+    private static final String CHEST = "[{\"name\":\"bench press\",\"equipment\":\"barbell\"},"
+            + "{\"name\":\"push-up\",\"equipment\":\"body weight\"},"
+            + "{\"name\":\"fly\",\"equipment\":\"dumbbell\"}]";
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile int status = 200;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/exercises", exchange -> {
+            hits.incrementAndGet();
+            byte[] body = CHEST.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, status == 200 ? body.length : -1);
+            if (status == 200) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private ExerciseCatalog catalog(long ttlMinutes, int failureThreshold) {
+        return new ExerciseCatalog(new ObjectMapper(), new SimpleMeterRegistry(), WorkerThreads.platform(), "test-key",
+                "http://127.0.0.1:" + server.getAddress().getPort(),
+                ttlMinutes, 0, 1000, 1000, 2000, failureThreshold, 60_000);
+    }
+
+    @Test
+    void groupsByEquipmentAndServesRepeatsFromCache() throws IOException {
+        ExerciseCatalog catalog = catalog(60, 5);
+
+        Map<String, ExerciseCatalog.Entry> first = catalog.get(List.of("chest"));
+        catalog.get(List.of("chest"));
+
+        ExerciseCatalog.Entry entry = first.get("chest");
+        assertEquals(3, entry.exercises().size());
+        assertEquals(1, entry.byEquipment().get("barbell").size());
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void fetchesEveryMissingBodyPartInOrder() throws IOException {
+        Map<String, ExerciseCatalog.Entry> entries = catalog(60, 5).get(List.of("chest", "back", "waist"));
+
+        assertEquals(List.of("chest", "back", "waist"), List.copyOf(entries.keySet()));
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    void loadsAgainOnceThePreviousLoadHasFinished() throws IOException {
+        ExerciseCatalog catalog = catalog(0, 5);
+
+        catalog.get(List.of("chest"));
+        catalog.get(List.of("chest"));
+
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void stopsCallingUpstreamOnceBreakerOpens() {
+        status = 500;
+        ExerciseCatalog catalog = catalog(0, 2);
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(IOException.class, () -> catalog.get(List.of("chest")));
+        }
+
+        assertEquals(2, hits.get());
+    }
+}
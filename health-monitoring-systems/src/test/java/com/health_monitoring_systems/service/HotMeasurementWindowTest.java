@@ -0,0 +1,82 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.MeasurementView;
+import com.health_monitoring_systems.repository.UserMeasurementsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotMeasurementWindowTest {
+
+    private static final long USER = 7L;
+
+    private UserMeasurementsRepository repository;
+    private PlatformTransactionManager transactionManager;
+    private HotMeasurementWindow window;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserMeasurementsRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        window = new HotMeasurementWindow(repository, transactionManager, new SimpleMeterRegistry(),
+                true, 24, 100, 10, 30);
+    }
+
+    private static MeasurementView row(long id, LocalDateTime date) {
+        return new MeasurementView(id, 36.6, 70, 97, 40, 22, date);
+    }
+
+    private List<MeasurementView> page() {
+        LocalDateTime now = LocalDateTime.now();
+        return window.page(USER, now.minusHours(1), now.plusHours(1), Long.MAX_VALUE, 10).orElseThrow();
+    }
+
+    @Test
+    void windowIsSeededFromThePrimary() {
+        when(repository.findPage(eq(USER), any(), any(), anyLong(), any())).thenReturn(List.of());
+
+        page();
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        assertFalse(definition.getValue().isReadOnly(), "read-only transactions may be routed to the replica");
+    }
+
+    @Test
+    void rowCommittedWhileLoadingIsKeptOnce() {
+        LocalDateTime date = LocalDateTime.now().minusMinutes(1);
+        MeasurementView older = row(1, date.minusMinutes(1));
+        MeasurementView racing = row(2, date);
+        when(repository.findPage(eq(USER), any(), any(), anyLong(), any())).thenAnswer(invocation -> {
+            // Saved and recorded after the window registered, but before the seed query read it
+            window.record(USER, racing.getId(), racing.getDateOfMeasurement(), racing.getTemperature(),
+                    racing.getHeartRate(), racing.getOxygen(), racing.getHumidity(), racing.getRoomTemperature());
+            return List.of(racing, older);
+        });
+
+        List<MeasurementView> rows = page();
+        assertEquals(List.of(2L, 1L), rows.stream().map(MeasurementView::getId).toList());
+
+        window.record(USER, racing.getId(), racing.getDateOfMeasurement(), racing.getTemperature(),
+                racing.getHeartRate(), racing.getOxygen(), racing.getHumidity(), racing.getRoomTemperature());
+        assertEquals(2, page().size());
+    }
+}
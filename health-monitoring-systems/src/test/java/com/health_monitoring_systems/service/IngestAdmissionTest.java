@@ -0,0 +1,68 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.exception.RateLimitExceededException;
+import com.health_monitoring_systems.model.SensorData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngestAdmissionTest {
+
+    private LiveStateRegistry registry;
+    private IngestAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        registry = new LiveStateRegistry(100, 8, 300, 2000);
+        VitalsAnomalyDetector anomalyDetector = mock(VitalsAnomalyDetector.class);
+        when(anomalyDetector.outsideLimits(any())).thenReturn(false);
+        admission = new IngestAdmission(registry, anomalyDetector, new SimpleMeterRegistry(),
+                10, 50, 1, 2, 1024, 64, 1000);
+    }
+
+    private static SensorData reading(float bpm) {
+        return new SensorData(22f, 40f, 36.6f, bpm, 97f);
+    }
+
+    @Test
+    void onlyARepeatedReadingIsRedundant() {
+        long now = System.currentTimeMillis();
+        registry.publishFrame("esp32-1", reading(70), 0, 1, now);
+
+        assertEquals(IngestAdmission.Priority.REDUNDANT, admission.classify("esp32-1", reading(70.2f), now + 200));
+        assertEquals(IngestAdmission.Priority.NORMAL, admission.classify("esp32-1", reading(75), now + 200), "new reading");
+        assertEquals(IngestAdmission.Priority.NORMAL, admission.classify("esp32-1", reading(70), now + 1000), "interval passed");
+    }
+
+    @Test
+    void backlogFramesAreJudgedByTheirOwnTimestamps() {
+        long start = System.currentTimeMillis() - 60_000;
+        registry.publishFrame("esp32-1", reading(70), 0, 1, start);
+
+        // Arriving together now, but sampled a second apart
+        assertEquals(IngestAdmission.Priority.NORMAL, admission.classify("esp32-1", reading(70), start + 1000));
+        assertEquals(IngestAdmission.Priority.REDUNDANT, admission.classify("esp32-1", reading(70), start + 500));
+    }
+
+    @Test
+    void batchChargesEveryUserOrNone() {
+        admission.acquireUser("b@example.com");
+        admission.acquireUser("b@example.com");
+
+        assertThrows(RateLimitExceededException.class,
+                () -> admission.acquireUsers(List.of("a@example.com", "b@example.com")));
+
+        // a's permits were given back when b was refused
+        assertDoesNotThrow(() -> admission.acquireUser("a@example.com"));
+        assertDoesNotThrow(() -> admission.acquireUser("a@example.com"));
+    }
+}
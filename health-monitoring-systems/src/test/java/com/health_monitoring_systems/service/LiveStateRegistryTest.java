@@ -0,0 +1,83 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.model.SensorData;
+import com.health_monitoring_systems.model.SensorSnapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveStateRegistryTest {
+
+    private final LiveStateRegistry registry = new LiveStateRegistry(100, 8, 300, 2000);
+
+    private static SensorData bpm(float bpm) {
+        return new SensorData(22f, 40f, 36.6f, bpm, 97f);
+    }
+
+    @Test
+    void lateOrReplayedFramesDoNotOverwriteNewerState() {
+        long now = System.currentTimeMillis();
+        assertNotNull(registry.publishFrame("esp32-1", bpm(70), 0, 5, now));
+        assertNotNull(registry.publishFrame("esp32-1", bpm(72), 0, 6, now + 1000));
+
+        assertNull(registry.publishFrame("esp32-1", bpm(60), 0, 4, now - 1000), "late frame");
+        assertNull(registry.publishFrame("esp32-1", bpm(72), 0, 6, now + 1000), "replayed frame");
+
+        SensorSnapshot latest = registry.latest("esp32-1");
+        assertEquals(72f, latest.getBpm());
+        assertEquals(now + 1000, latest.getTimestamp(), "stamped with the device clock");
+    }
+
+    @Test
+    void devicesWithoutAClockAreOrderedBySequence() {
+        assertNotNull(registry.publishFrame("esp32-1", bpm(70), 0, 10, 0));
+        assertNull(registry.publishFrame("esp32-1", bpm(60), 0, 9, 0));
+        assertNotNull(registry.publishFrame("esp32-1", bpm(71), 0, 11, 0));
+        // The 32-bit counter wrapping around is still newer
+        assertNotNull(registry.publishFrame("esp32-2", bpm(70), 0, 0xFFFFFFFFL, 0));
+        assertNotNull(registry.publishFrame("esp32-2", bpm(71), 0, 0, 0));
+        // So is a restart, which sends the counter far back
+        assertNotNull(registry.publishFrame("esp32-1", bpm(72), 0, 1_000_000, 0));
+        assertNotNull(registry.publishFrame("esp32-1", bpm(73), 0, 1, 0));
+        assertEquals(73f, registry.latest("esp32-1").getBpm());
+    }
+
+    @Test
+    void newBootIdStartsANewRun() {
+        assertNotNull(registry.publishFrame("esp32-1", bpm(70), 0x1234, 5000, 0));
+        assertNull(registry.publishFrame("esp32-1", bpm(60), 0x1234, 4999, 0), "late frame, same boot");
+        assertNotNull(registry.publishFrame("esp32-1", bpm(71), 0x4321, 1, 0), "rebooted");
+        assertNotNull(registry.publishFrame("esp32-1", bpm(72), 0x4321, 2, 0));
+        assertEquals(72f, registry.latest("esp32-1").getBpm());
+    }
+
+    @Test
+    void smallRestartWithoutABootIdIsAcceptedAfterSilence() throws InterruptedException {
+        LiveStateRegistry registry = new LiveStateRegistry(100, 8, 300, 1);
+        assertNotNull(registry.publishFrame("esp32-1", bpm(70), 0, 5000, 0));
+        assertNull(registry.publishFrame("esp32-1", bpm(60), 0, 5000, 0), "replayed frame");
+        Thread.sleep(5);
+        assertNotNull(registry.publishFrame("esp32-1", bpm(71), 0, 1, 0), "restarted after going quiet");
+        assertNotNull(registry.publishFrame("esp32-1", bpm(72), 0, 2, 0));
+        assertEquals(72f, registry.latest("esp32-1").getBpm());
+    }
+
+    @Test
+    void implausibleDeviceClockFallsBackToServerTime() {
+        long before = System.currentTimeMillis();
+        SensorSnapshot snapshot = registry.publishFrame("esp32-1", bpm(70), 0, 1, 86_400_000L);
+        assertNotNull(snapshot);
+        assertTrue(snapshot.getTimestamp() >= before);
+    }
+
+    @Test
+    void historyIgnoresNonPositiveLimits() {
+        registry.publish("esp32-1", bpm(70));
+        assertEquals(0, registry.history("esp32-1", -1).size());
+        assertEquals(0, registry.history("esp32-1", 0).size());
+        assertEquals(1, registry.history("esp32-1", 5).size());
+    }
+}
@@ -0,0 +1,115 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.DeviceOwner;
+import com.health_monitoring_systems.dto.MeasurementRequest;
+import com.health_monitoring_systems.model.SensorData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LiveStreamRecorderTest {
+
+    private static final long WINDOW_MILLIS = 60_000;
+
+    private DeviceService deviceService;
+    private MeasurementWriteBehindBuffer writeBuffer;
+    private SimpleMeterRegistry meterRegistry;
+    private long windowStart;
+
+    @BeforeEach
+    void setUp() {
+        deviceService = mock(DeviceService.class);
+        when(deviceService.findOwner("esp32-1")).thenReturn(Optional.of(new DeviceOwner(7L, "a@example.com", "A", null, null)));
+        when(deviceService.findOwner("esp32-2")).thenReturn(Optional.empty());
+        writeBuffer = mock(MeasurementWriteBehindBuffer.class);
+        when(writeBuffer.offer(any(), any(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        meterRegistry = new SimpleMeterRegistry();
+        // A window that has already ended, so the next flush closes it
+        long now = System.currentTimeMillis();
+        windowStart = now - Math.floorMod(now, WINDOW_MILLIS) - 2 * WINDOW_MILLIS;
+    }
+
+    private LiveStreamRecorder recorder(int minSamples, long ownerCacheSeconds, long idleTimeoutSeconds) {
+        return new LiveStreamRecorder(deviceService, writeBuffer, meterRegistry, true, WINDOW_MILLIS / 1000,
+                minSamples, ownerCacheSeconds, idleTimeoutSeconds);
+    }
+
+    private static SensorData sample(float bpm, float spo2) {
+        return new SensorData(22f, 40f, 36.6f, bpm, spo2);
+    }
+
+    @Test
+    void finishedWindowBecomesOneRowForTheOwner() {
+        LiveStreamRecorder recorder = recorder(3, 60, 300);
+        recorder.record("esp32-1", windowStart + 1000, sample(60, 95));
+        recorder.record("esp32-1", windowStart + 2000, sample(70, 97));
+        recorder.record("esp32-1", windowStart + 3000, sample(80, 99));
+        recorder.record("esp32-1", windowStart + 4000, sample(0, 0)); // not worn: ignored
+
+        recorder.flush();
+
+        ArgumentCaptor<MeasurementRequest> request = ArgumentCaptor.forClass(MeasurementRequest.class);
+        ArgumentCaptor<MeasurementWriteBehindBuffer.Extremes> extremes = ArgumentCaptor.forClass(MeasurementWriteBehindBuffer.Extremes.class);
+        verify(writeBuffer).offer(eq(7L), request.capture(),
+                eq(LocalDateTime.ofInstant(Instant.ofEpochMilli(windowStart), ZoneId.systemDefault())), extremes.capture());
+        assertEquals(70, request.getValue().getHeartRate());
+        assertEquals(97, request.getValue().getOxygen());
+        assertEquals(new MeasurementWriteBehindBuffer.Extremes(60, 80, 95, 99, 3), extremes.getValue());
+        assertEquals(1, meterRegistry.counter("recorder.windows", "outcome", "recorded").count());
+    }
+
+    @Test
+    void sparseWindowsAndUnlinkedDevicesAreNotRecorded() {
+        LiveStreamRecorder recorder = recorder(3, 60, 300);
+        recorder.record("esp32-1", windowStart + 1000, sample(70, 97));
+        for (int i = 0; i < 3; i++) {
+            recorder.record("esp32-2", windowStart + i * 1000, sample(70, 97));
+        }
+
+        recorder.flush();
+
+        verify(writeBuffer, never()).offer(any(), any(), any(), any());
+        assertEquals(1, meterRegistry.counter("recorder.windows", "outcome", "unlinked").count());
+    }
+
+    @Test
+    void samplesAfterAnIdleWindowIsDroppedStartAFreshWindow() {
+        LiveStreamRecorder recorder = recorder(1, 60, 0);
+        recorder.record("esp32-1", windowStart, sample(0, 0));
+        recorder.flush();
+
+        recorder.record("esp32-1", windowStart + WINDOW_MILLIS, sample(70, 97));
+        recorder.flush();
+
+        verify(writeBuffer).offer(eq(7L), any(), any(), any());
+    }
+
+    @Test
+    void ownerLookupsExpire() throws InterruptedException {
+        LiveStreamRecorder recorder = recorder(1, 0, 300);
+        recorder.record("esp32-1", windowStart, sample(70, 97));
+        recorder.flush();
+        // Entries live for up to the cache time, so let the clock move past it
+        Thread.sleep(5);
+        recorder.record("esp32-1", windowStart + WINDOW_MILLIS, sample(70, 97));
+        recorder.flush();
+
+        verify(deviceService, times(2)).findOwner("esp32-1");
+    }
+}
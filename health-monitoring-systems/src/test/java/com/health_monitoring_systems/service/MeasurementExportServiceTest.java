@@ -0,0 +1,79 @@
+package com.health_monitoring_systems.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MeasurementExportServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE user_measurements (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT, "
+                + "temperature DOUBLE, heart_rate INT, oxygen INT, humidity DOUBLE, room_temperature DOUBLE, "
+                + "date_of_measurement TIMESTAMP)");
+        insert(1, "2024-01-02 10:00:00", 71);
+        insert(1, "2024-01-01 10:00:00", 70);
+        insert(2, "2024-01-01 11:00:00", 90);  // another user
+        insert(1, "2023-12-31 23:59:59", 60);  // before the range
+        insert(1, "2024-02-01 00:00:00", 80);  // range end is exclusive
+        objectMapper = JsonMapper.builder().findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("SHUTDOWN");
+    }
+
+    private void insert(long userId, String date, int heartRate) {
+        jdbc.update("INSERT INTO user_measurements (user_id, temperature, heart_rate, oxygen, humidity, room_temperature, "
+                + "date_of_measurement) VALUES (?, 36.6, ?, 97, 40.0, 22.0, TIMESTAMP '" + date + "')", userId, heartRate);
+    }
+
+    private String export(int fetchSize, MeasurementExportService.Format format) throws Exception {
+        MeasurementExportService service = new MeasurementExportService(jdbc, objectMapper,
+                new DataSourceTransactionManager(dataSource), fetchSize);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(1L, FROM, TO, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void csvListsTheUsersRowsInTheRangeOldestFirst() throws Exception {
+        // 0 picks the fetch size for the database; H2 rejects MySQL's streaming value
+        assertEquals("""
+                id,dateOfMeasurement,temperature,heartRate,oxygen,humidity,roomTemperature
+                2,2024-01-01T10:00,36.6,70,97,40.0,22.0
+                1,2024-01-02T10:00,36.6,71,97,40.0,22.0
+                """, export(0, MeasurementExportService.Format.CSV));
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        assertEquals("""
+                {"id":2,"temperature":36.6,"heartRate":70,"oxygen":97,"humidity":40.0,"roomTemperature":22.0,"dateOfMeasurement":"2024-01-01T10:00:00"}
+                {"id":1,"temperature":36.6,"heartRate":71,"oxygen":97,"humidity":40.0,"roomTemperature":22.0,"dateOfMeasurement":"2024-01-02T10:00:00"}
+                """, export(1, MeasurementExportService.Format.NDJSON));
+    }
+}
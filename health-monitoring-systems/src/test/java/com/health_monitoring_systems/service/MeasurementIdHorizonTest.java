@@ -0,0 +1,69 @@
+package com.health_monitoring_systems.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MeasurementIdHorizonTest {
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:horizon;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("CREATE TABLE user_measurements (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("SHUTDOWN");
+    }
+
+    private void insertRows(int count) {
+        for (int i = 0; i < count; i++) {
+            jdbc.update("INSERT INTO user_measurements (user_id) VALUES (1)");
+        }
+    }
+
+    @Test
+    void holdsBackIdsUntilTheGracePeriodHasPassed() {
+        insertRows(3);
+        MeasurementIdHorizon horizon = new MeasurementIdHorizon(jdbc, 3600);
+
+        assertEquals(0, horizon.safeLimit());
+        insertRows(2);
+        assertEquals(0, horizon.safeLimit());
+    }
+
+    @Test
+    void withoutGraceTheCurrentMaximumIsFinal() {
+        MeasurementIdHorizon horizon = new MeasurementIdHorizon(jdbc, 0);
+        assertEquals(0, horizon.safeLimit());
+
+        insertRows(3);
+        assertEquals(3, horizon.safeLimit());
+        insertRows(2);
+        assertEquals(5, horizon.safeLimit());
+    }
+
+    @Test
+    void returnsTheNewestObservationOlderThanTheGracePeriod() throws InterruptedException {
+        MeasurementIdHorizon horizon = new MeasurementIdHorizon(jdbc, 1);
+        insertRows(2);
+        horizon.safeLimit();
+        Thread.sleep(600);
+        insertRows(2);
+        horizon.safeLimit();
+        Thread.sleep(600);
+        insertRows(2);
+
+        // Only the first observation (max id 2) is a full second old
+        assertEquals(2, horizon.safeLimit());
+        Thread.sleep(600);
+        assertEquals(4, horizon.safeLimit());
+    }
+}
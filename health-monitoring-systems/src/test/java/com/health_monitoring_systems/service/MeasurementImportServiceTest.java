@@ -0,0 +1,129 @@
+package com.health_monitoring_systems.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.health_monitoring_systems.config.WorkerThreads;
+import com.health_monitoring_systems.exception.ImportNotResumableException;
+import com.health_monitoring_systems.model.ImportStatus;
+import com.health_monitoring_systems.model.MeasurementImport;
+import com.health_monitoring_systems.repository.MeasurementImportRepository;
+import com.health_monitoring_systems.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MeasurementImportServiceTest {
+
+    private static final long JOB = 3L;
+    private static final String HEADER = "userEmail,dateOfMeasurement,heartRate,oxygen\n";
+    private static final String[] ROWS = {
+            "a@example.com,2024-01-01T10:00:00,61,97\n",
+            "a@example.com,2024-01-01T10:01:00,62,97\n",
+            "a@example.com,2024-01-01T10:02:00,63,97\n",
+            "a@example.com,2024-01-01T10:03:00,64,97\n"
+    };
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbc;
+    private MeasurementImportRepository importRepository;
+    private MeasurementImportService service;
+    private MeasurementImport job;
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:import;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE user_measurements (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT, "
+                + "temperature DOUBLE, heart_rate INT, oxygen INT, humidity DOUBLE, room_temperature DOUBLE, "
+                + "date_of_measurement TIMESTAMP)");
+        jdbc.execute("CREATE TABLE measurement_imports (id BIGINT PRIMARY KEY, byte_checkpoint BIGINT, "
+                + "line_checkpoint BIGINT, rows_imported BIGINT, rows_rejected BIGINT, last_error VARCHAR(1000))");
+        jdbc.update("INSERT INTO measurement_imports (id) VALUES (?)", JOB);
+
+        job = new MeasurementImport();
+        job.setId(JOB);
+        job.setFormat(MeasurementExportService.Format.CSV);
+        importRepository = mock(MeasurementImportRepository.class);
+        when(importRepository.findById(JOB)).thenAnswer(invocation -> Optional.of(job));
+        when(importRepository.save(any())).thenAnswer(invocation -> {
+            MeasurementImport saved = invocation.getArgument(0);
+            if (saved.getStatus() == ImportStatus.COMPLETED || saved.getStatus() == ImportStatus.FAILED) {
+                finished.countDown();
+            }
+            return saved;
+        });
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findIdByEmail("a@example.com")).thenReturn(Optional.of(7L));
+
+        service = new MeasurementImportService(importRepository, userRepository, mock(HotMeasurementWindow.class),
+                mock(MeasurementVersions.class), jdbc, new DataSourceTransactionManager(dataSource), new ObjectMapper(),
+                WorkerThreads.platform(), directory.toString(), 1, 1, 1 << 20);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        jdbc.execute("SHUTDOWN");
+    }
+
+    @Test
+    void resumeContinuesFromTheCheckpoint() throws Exception {
+        Path file = directory.resolve("import-3.csv");
+        String content = HEADER + String.join("", ROWS);
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        // The first two rows were committed before the import was interrupted
+        job.setStatus(ImportStatus.FAILED);
+        job.setFilePath(file.toString());
+        job.setByteCheckpoint(HEADER.length() + ROWS[0].length() + ROWS[1].length());
+        job.setLineCheckpoint(2);
+        job.setRowsImported(2);
+
+        service.resumeImport(JOB);
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+        assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        assertEquals(List.of(63, 64), jdbc.queryForList(
+                "SELECT heart_rate FROM user_measurements ORDER BY date_of_measurement", Integer.class));
+        Map<String, Object> checkpoint = jdbc.queryForMap("SELECT * FROM measurement_imports WHERE id = ?", JOB);
+        assertEquals(content.length(), ((Number) checkpoint.get("BYTE_CHECKPOINT")).longValue());
+        assertEquals(4L, ((Number) checkpoint.get("LINE_CHECKPOINT")).longValue());
+        assertEquals(4L, ((Number) checkpoint.get("ROWS_IMPORTED")).longValue());
+        assertFalse(Files.exists(file), "the spooled upload is removed once the import completes");
+    }
+
+    @Test
+    void completedImportsAndFailedUploadsCannotBeResumed() {
+        job.setStatus(ImportStatus.FAILED);
+        assertThrows(ImportNotResumableException.class, () -> service.resumeImport(JOB));
+
+        job.setFilePath(directory.resolve("gone.csv").toString());
+        assertThrows(ImportNotResumableException.class, () -> service.resumeImport(JOB));
+
+        job.setStatus(ImportStatus.COMPLETED);
+        assertThrows(ImportNotResumableException.class, () -> service.resumeImport(JOB));
+        assertEquals(1, finished.getCount(), "nothing was run");
+    }
+}
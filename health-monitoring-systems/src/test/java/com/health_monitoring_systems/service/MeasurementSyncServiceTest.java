@@ -0,0 +1,121 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.MeasurementChanges;
+import com.health_monitoring_systems.dto.MeasurementView;
+import com.health_monitoring_systems.repository.MeasurementTombstoneRepository;
+import com.health_monitoring_systems.repository.UserMeasurementsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MeasurementSyncServiceTest {
+
+    private static final long USER = 7L;
+
+    private UserMeasurementsRepository measurements;
+    private MeasurementTombstoneRepository tombstones;
+    private MeasurementIdHorizon horizon;
+    private MeasurementSyncService sync;
+
+    @BeforeEach
+    void setUp() {
+        measurements = mock(UserMeasurementsRepository.class);
+        tombstones = mock(MeasurementTombstoneRepository.class);
+        horizon = mock(MeasurementIdHorizon.class);
+        when(tombstones.findMaxId()).thenReturn(0L);
+        sync = new MeasurementSyncService(measurements, tombstones, horizon, 3, 30, 300);
+    }
+
+    private static List<MeasurementView> rows(long... ids) {
+        return Arrays.stream(ids)
+                .mapToObj(id -> new MeasurementView(id, 36.6, 70, 97, 40, 22, LocalDateTime.now()))
+                .toList();
+    }
+
+    private static List<Long> ids(MeasurementChanges changes) {
+        return changes.getAdded().stream().map(MeasurementView::getId).toList();
+    }
+
+    @Test
+    void rowCommittedAfterAHigherIdIsStillSynced() {
+        // Row 3 is still uncommitted during the first sync; nothing is final yet past id 2
+        when(horizon.safeLimit()).thenReturn(2L);
+        when(measurements.findViewsAddedAfter(eq(USER), eq(0L), any())).thenReturn(rows(1, 2, 4));
+        MeasurementChanges first = sync.getChanges(USER, null);
+        assertEquals(List.of(1L, 2L, 4L), ids(first));
+
+        when(horizon.safeLimit()).thenReturn(4L);
+        when(measurements.findViewsAddedAfter(eq(USER), eq(4L), any())).thenReturn(rows());
+        when(measurements.findViewsAddedBetween(eq(USER), eq(2L), eq(4L), any())).thenReturn(rows(3, 4));
+        MeasurementChanges second = sync.getChanges(USER, first.getCursor());
+        assertEquals(List.of(3L, 4L), ids(second));
+
+        // Everything up to 4 is final and was sent, so nothing is repeated any more
+        MeasurementChanges third = sync.getChanges(USER, second.getCursor());
+        assertTrue(third.getAdded().isEmpty());
+        verify(measurements, never()).findViewsAddedBetween(eq(USER), eq(4L), anyLong(), any());
+    }
+
+    @Test
+    void newRowsComeBeforeTheRescanAndKeepTheFloorWhenThePageIsFull() {
+        when(horizon.safeLimit()).thenReturn(0L);
+        when(measurements.findViewsAddedAfter(eq(USER), eq(0L), any())).thenReturn(rows(1, 2));
+        MeasurementChanges first = sync.getChanges(USER, null);
+
+        when(measurements.findViewsAddedAfter(eq(USER), eq(2L), any())).thenReturn(rows(5, 6, 7, 8));
+        MeasurementChanges second = sync.getChanges(USER, first.getCursor());
+        assertEquals(List.of(5L, 6L, 7L), ids(second));
+        assertTrue(second.isHasMore());
+
+        when(measurements.findViewsAddedAfter(eq(USER), eq(7L), any())).thenReturn(rows(8));
+        when(measurements.findViewsAddedBetween(eq(USER), eq(0L), eq(7L), any())).thenReturn(rows(1, 2));
+        MeasurementChanges third = sync.getChanges(USER, second.getCursor());
+        assertEquals(List.of(1L, 2L, 8L), ids(third));
+        assertFalse(third.isHasMore());
+    }
+
+    @Test
+    void cursorsWithoutAFloorStillWork() {
+        String legacy = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("4|0|" + System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        when(horizon.safeLimit()).thenReturn(10L);
+        when(measurements.findViewsAddedAfter(eq(USER), eq(4L), any())).thenReturn(rows(5));
+
+        assertEquals(List.of(5L), ids(sync.getChanges(USER, legacy)));
+        verify(measurements, never()).findViewsAddedBetween(anyLong(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void recentDeletesAreRepeated() {
+        long issuedAt = System.currentTimeMillis();
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("0|9|" + issuedAt + "|0").getBytes(StandardCharsets.UTF_8));
+        when(tombstones.findMaxId()).thenReturn(12L);
+        when(measurements.findViewsAddedAfter(eq(USER), eq(0L), any())).thenReturn(rows());
+        when(tombstones.findDeletedIds(eq(USER), eq(9L), eq(12L), any())).thenAnswer(invocation -> {
+            LocalDateTime recentAfter = invocation.getArgument(3);
+            // Five minutes of grace before the previous sync
+            assertTrue(recentAfter.isBefore(LocalDateTime.now().minusSeconds(299)));
+            assertTrue(recentAfter.isAfter(LocalDateTime.now().minusSeconds(301)));
+            return List.of(40L, 41L);
+        });
+
+        assertEquals(List.of(40L, 41L), sync.getChanges(USER, cursor).getDeleted());
+    }
+}
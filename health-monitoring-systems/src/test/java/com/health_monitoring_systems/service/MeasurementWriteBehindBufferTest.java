@@ -0,0 +1,176 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.config.WorkerThreads;
+import com.health_monitoring_systems.dto.MeasurementRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class MeasurementWriteBehindBufferTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private HotMeasurementWindow hotWindow;
+    private MeasurementVersions versions;
+    private SimpleMeterRegistry meterRegistry;
+    private MeasurementWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:write-behind;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE user_measurements (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT, "
+                + "temperature DOUBLE, heart_rate INT, oxygen INT, humidity DOUBLE, room_temperature DOUBLE, "
+                + "date_of_measurement TIMESTAMP, heart_rate_min INT, heart_rate_max INT, oxygen_min INT, "
+                + "oxygen_max INT, sample_count INT)");
+        hotWindow = mock(HotMeasurementWindow.class);
+        versions = mock(MeasurementVersions.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (buffer != null) {
+            buffer.stop();
+        }
+        jdbc.execute("SHUTDOWN");
+    }
+
+    private MeasurementWriteBehindBuffer buffer(int capacity, int batchSize, MeasurementWriteBehindBuffer.Durability durability) {
+        return new MeasurementWriteBehindBuffer(jdbc, new DataSourceTransactionManager(dataSource), hotWindow, versions,
+                meterRegistry, WorkerThreads.platform(), capacity, batchSize, 20, durability);
+    }
+
+    private static MeasurementRequest request(int heartRate) {
+        MeasurementRequest request = new MeasurementRequest();
+        request.setTemperature(36.6);
+        request.setHeartRate(heartRate);
+        request.setOxygen(97);
+        request.setHumidity(40);
+        request.setRoomTemperature(22);
+        return request;
+    }
+
+    private static void await(CompletableFuture<Void> done) throws Exception {
+        done.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void batchIsWrittenThenPublishedWithItsGeneratedIds() throws Exception {
+        buffer = buffer(100, 3, MeasurementWriteBehindBuffer.Durability.ASYNC);
+        buffer.start();
+
+        CompletableFuture<Void> first = buffer.offer(1L, request(70), DATE);
+        CompletableFuture<Void> second = buffer.offer(1L, request(71), DATE.plusMinutes(1),
+                new MeasurementWriteBehindBuffer.Extremes(60, 80, 95, 99, 12));
+        CompletableFuture<Void> third = buffer.offer(2L, request(72), DATE);
+        await(first);
+        await(second);
+        await(third);
+
+        List<Map<String, Object>> rows = jdbc.queryForList(
+                "SELECT id, user_id, heart_rate, date_of_measurement, heart_rate_max, sample_count FROM user_measurements ORDER BY id");
+        assertEquals(3, rows.size());
+        assertEquals(71, rows.get(1).get("HEART_RATE"));
+        assertEquals(80, rows.get(1).get("HEART_RATE_MAX"));
+        assertEquals(12, rows.get(1).get("SAMPLE_COUNT"));
+        assertNull(rows.get(0).get("SAMPLE_COUNT"));
+
+        long firstId = ((Number) rows.get(0).get("ID")).longValue();
+        verify(hotWindow).record(1L, firstId, DATE, 36.6, 70, 97, 40.0, 22.0);
+        verify(hotWindow).record(1L, firstId + 1, DATE.plusMinutes(1), 36.6, 71, 97, 40.0, 22.0);
+        verify(hotWindow).record(2L, firstId + 2, DATE, 36.6, 72, 97, 40.0, 22.0);
+        verify(hotWindow, never()).invalidate(anyLong());
+        verify(versions, times(2)).bump(1L);
+        verify(versions).bump(2L);
+        assertEquals(3, meterRegistry.counter("measurements.buffer.rows", "outcome", "persisted").count());
+    }
+
+    @Test
+    void fullQueueRejectsUntilItDrains() throws Exception {
+        buffer = buffer(2, 10, MeasurementWriteBehindBuffer.Durability.ASYNC);
+
+        assertNotNull(buffer.offer(1L, request(70), DATE));
+        CompletableFuture<Void> last = buffer.offer(1L, request(71), DATE);
+        assertNotNull(last);
+        assertNull(buffer.offer(1L, request(72), DATE));
+        assertEquals(1, meterRegistry.counter("measurements.buffer.rows", "outcome", "rejected").count());
+
+        buffer.start();
+        await(last);
+        assertNotNull(buffer.offer(1L, request(72), DATE));
+    }
+
+    @Test
+    void syncWaitEndsOnlyOnceTheRowHasCommitted() throws Exception {
+        buffer = buffer(100, 10, MeasurementWriteBehindBuffer.Durability.SYNC);
+        assertEquals(MeasurementWriteBehindBuffer.Durability.SYNC, buffer.getDurability());
+
+        CompletableFuture<Void> done = buffer.offer(1L, request(70), DATE);
+        Thread.sleep(50);
+        assertFalse(done.isDone(), "nothing is written before the flusher runs");
+
+        buffer.start();
+        await(done);
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM user_measurements", Integer.class));
+    }
+
+    @Test
+    void failedBatchFailsItsWaitersAndPublishesNothing() throws Exception {
+        jdbc.execute("DROP TABLE user_measurements");
+        buffer = buffer(100, 10, MeasurementWriteBehindBuffer.Durability.SYNC);
+        buffer.start();
+
+        CompletableFuture<Void> done = buffer.offer(1L, request(70), DATE);
+        assertThrows(ExecutionException.class, () -> done.get(5, TimeUnit.SECONDS));
+        verify(hotWindow, never()).record(anyLong(), anyLong(), any(), anyDouble(), anyInt(), anyInt(), anyDouble(), anyDouble());
+        verify(versions, never()).bump(eq(1L));
+        assertEquals(1, meterRegistry.counter("measurements.buffer.rows", "outcome", "failed").count());
+    }
+
+    @Test
+    void stopWritesWhatIsStillQueued() throws Exception {
+        buffer = buffer(100, 2, MeasurementWriteBehindBuffer.Durability.ASYNC);
+        buffer.start();
+        // Rows queued after the flusher has gone are left for stop() to write
+        buffer.stop();
+        List<CompletableFuture<Void>> pending = List.of(buffer.offer(1L, request(70), DATE),
+                buffer.offer(1L, request(71), DATE), buffer.offer(1L, request(72), DATE));
+
+        buffer.stop();
+        buffer = null;
+        for (CompletableFuture<Void> done : pending) {
+            assertNotNull(done);
+            await(done);
+        }
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM user_measurements", Integer.class));
+    }
+}
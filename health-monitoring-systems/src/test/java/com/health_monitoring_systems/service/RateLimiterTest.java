@@ -0,0 +1,93 @@
+package com.health_monitoring_systems.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    // 10 permits per second, bursts of 5
+    private static RateLimiter limiter(AtomicLong clock) {
+        return new RateLimiter(10, 5, 16, clock::get);
+    }
+
+    @Test
+    void fullBucketGrantsOneBurstThenReportsTheWait() {
+        AtomicLong clock = new AtomicLong(42 * SECOND);
+        RateLimiter limiter = limiter(clock);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("device", 1), "permit " + i);
+        }
+        assertEquals(SECOND / 10, limiter.tryAcquire("device", 1));
+        assertEquals(0, limiter.tryAcquire("other", 5), "keys have their own buckets");
+    }
+
+    @Test
+    void permitsRefillOneIntervalAtATime() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = limiter(clock);
+        limiter.tryAcquire("device", 5);
+
+        clock.addAndGet(SECOND / 10 - 1);
+        assertEquals(1, limiter.tryAcquire("device", 1), "one nanosecond short");
+        clock.addAndGet(1);
+        assertEquals(0, limiter.tryAcquire("device", 1));
+        assertTrue(limiter.tryAcquire("device", 1) > 0);
+
+        // Idle time refills up to the burst, not beyond
+        clock.addAndGet(60 * SECOND);
+        assertEquals(0, limiter.tryAcquire("device", 5));
+        assertTrue(limiter.tryAcquire("device", 1) > 0);
+    }
+
+    @Test
+    void oversizedRequestsCostAFullBurst() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = limiter(clock);
+        assertEquals(0, limiter.tryAcquire("device", 50));
+        assertEquals(SECOND / 10, limiter.tryAcquire("device", 1));
+    }
+
+    @Test
+    void refundGivesPermitsBack() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter limiter = limiter(clock);
+        limiter.tryAcquire("device", 5);
+        limiter.refund("device", 2);
+        assertEquals(0, limiter.tryAcquire("device", 2));
+        assertTrue(limiter.tryAcquire("device", 1) > 0);
+    }
+
+    @Test
+    void refundsNeverFillTheBucketBeyondABurst() {
+        AtomicLong clock = new AtomicLong(42 * SECOND);
+        RateLimiter limiter = limiter(clock);
+        limiter.tryAcquire("device", 1);
+        for (int i = 0; i < 10; i++) {
+            limiter.refund("device", 5);
+        }
+        clock.addAndGet(SECOND);
+
+        assertEquals(0, limiter.tryAcquire("device", 5));
+        assertEquals(SECOND / 10, limiter.tryAcquire("device", 1));
+    }
+
+    @Test
+    void nanoTimeOverflowDoesNotResetOrBlockBuckets() {
+        // System.nanoTime() may start anywhere, including just before it wraps
+        AtomicLong clock = new AtomicLong(Long.MAX_VALUE - SECOND / 20);
+        RateLimiter limiter = limiter(clock);
+        limiter.tryAcquire("device", 5);
+        assertTrue(limiter.tryAcquire("device", 1) > 0);
+
+        clock.addAndGet(SECOND / 10);
+        assertTrue(clock.get() < 0, "clock wrapped");
+        assertEquals(0, limiter.tryAcquire("device", 1));
+        assertTrue(limiter.tryAcquire("device", 1) > 0);
+    }
+}
@@ -0,0 +1,115 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.dto.MeasurementRequest;
+import com.health_monitoring_systems.model.User;
+import com.health_monitoring_systems.model.UserMeasurements;
+import com.health_monitoring_systems.repository.UserMeasurementsRepository;
+import com.health_monitoring_systems.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserMeasurementsServiceTest {
+
+    private static final long USER = 7L;
+
+    private UserMeasurementsRepository measurementsRepository;
+    private MeasurementWriteBehindBuffer writeBuffer;
+    private UserMeasurementsService service;
+
+    @BeforeEach
+    void setUp() {
+        measurementsRepository = mock(UserMeasurementsRepository.class);
+        when(measurementsRepository.save(any())).thenAnswer(invocation -> {
+            UserMeasurements saved = invocation.getArgument(0);
+            saved.setId(1L);
+            return saved;
+        });
+        UserRepository userRepository = mock(UserRepository.class);
+        User user = new User();
+        user.setId(USER);
+        when(userRepository.findByEmail("a@example.com")).thenReturn(Optional.of(user));
+        when(userRepository.findIdByEmail("a@example.com")).thenReturn(Optional.of(USER));
+        writeBuffer = mock(MeasurementWriteBehindBuffer.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new UserMeasurementsService(measurementsRepository, userRepository, writeBuffer,
+                mock(MeasurementRollupService.class), mock(HotMeasurementWindow.class), mock(MeasurementSketchService.class),
+                mock(MeasurementSyncService.class), mock(MeasurementVersions.class), new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(service, "syncTimeoutMillis", 5000L);
+        ReflectionTestUtils.setField(service, "maxClockAheadSeconds", 60L);
+    }
+
+    private static MeasurementRequest request(LocalDateTime dateOfMeasurement) {
+        MeasurementRequest request = new MeasurementRequest();
+        request.setUserEmail("a@example.com");
+        request.setHeartRate(70);
+        request.setOxygen(97);
+        request.setDateOfMeasurement(dateOfMeasurement);
+        return request;
+    }
+
+    private LocalDateTime savedDate(MeasurementRequest request) {
+        service.saveMeasurement(request);
+        ArgumentCaptor<UserMeasurements> saved = ArgumentCaptor.forClass(UserMeasurements.class);
+        verify(measurementsRepository).save(saved.capture());
+        return saved.getValue().getDateOfMeasurement();
+    }
+
+    @Test
+    void savedMeasurementKeepsTheClientsDate() {
+        LocalDateTime measuredAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        assertEquals(measuredAt, savedDate(request(measuredAt)));
+    }
+
+    @Test
+    void missingOrFarFutureDatesUseTheServerTime() {
+        LocalDateTime before = LocalDateTime.now();
+        LocalDateTime date = savedDate(request(before.plusDays(1)));
+        assertTrue(!date.isBefore(before) && date.isBefore(before.plusMinutes(1)), date.toString());
+
+        when(writeBuffer.getDurability()).thenReturn(MeasurementWriteBehindBuffer.Durability.ASYNC);
+        when(writeBuffer.offer(eq(USER), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        LocalDateTime slightlyAhead = LocalDateTime.now().plusSeconds(10);
+        service.saveMeasurements(List.of(request(null), request(slightlyAhead), request(slightlyAhead.plusDays(1))));
+
+        ArgumentCaptor<LocalDateTime> dates = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(writeBuffer, times(3)).offer(eq(USER), any(), dates.capture());
+        LocalDateTime receivedAt = dates.getAllValues().get(0);
+        assertTrue(!receivedAt.isBefore(before), receivedAt.toString());
+        assertEquals(List.of(receivedAt, slightlyAhead, receivedAt), dates.getAllValues());
+    }
+
+    @Test
+    void interruptedSyncWaitKeepsTheInterrupt() {
+        when(writeBuffer.getDurability()).thenReturn(MeasurementWriteBehindBuffer.Durability.SYNC);
+        when(writeBuffer.offer(eq(USER), any(), any())).thenReturn(new CompletableFuture<>());
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(IllegalStateException.class, () -> service.saveMeasurements(List.of(request(null))));
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.model.MeasurementSketch.Vital;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VitalHistogramTest {
+
+    @Test
+    void valuesLandInTheNearestStep() {
+        VitalHistogram histogram = new VitalHistogram(Vital.TEMPERATURE);
+        histogram.add(36.64);
+        assertEquals(36.6, histogram.quantile(0.5));
+
+        VitalHistogram humidity = new VitalHistogram(Vital.HUMIDITY);
+        humidity.add(40.3);
+        assertEquals(40.5, humidity.quantile(0.5));
+    }
+
+    @Test
+    void outOfRangeValuesAreClampedToTheEdgeBins() {
+        VitalHistogram histogram = new VitalHistogram(Vital.OXYGEN);
+        histogram.add(-5);
+        histogram.add(140);
+        assertEquals(2, histogram.count());
+        assertEquals(0.0, histogram.quantile(0));
+        assertEquals(100.0, histogram.quantile(1));
+    }
+
+    @Test
+    void quantilesUseTheNearestRank() {
+        VitalHistogram histogram = new VitalHistogram(Vital.HEART_RATE);
+        for (int bpm = 1; bpm <= 100; bpm++) {
+            histogram.add(bpm);
+        }
+        assertEquals(1.0, histogram.quantile(0));
+        assertEquals(50.0, histogram.quantile(0.5));
+        assertEquals(51.0, histogram.quantile(0.505));
+        assertEquals(99.0, histogram.quantile(0.99));
+        assertEquals(100.0, histogram.quantile(1));
+    }
+
+    @Test
+    void emptyHistogramHasNoQuantiles() {
+        VitalHistogram histogram = new VitalHistogram(Vital.HEART_RATE);
+        assertTrue(Double.isNaN(histogram.quantile(0.5)));
+        assertEquals(0, histogram.encode().length);
+    }
+
+    @Test
+    void mergingEncodedHistogramsAddsTheirCounts() {
+        VitalHistogram monday = new VitalHistogram(Vital.HEART_RATE);
+        VitalHistogram tuesday = new VitalHistogram(Vital.HEART_RATE);
+        VitalHistogram both = new VitalHistogram(Vital.HEART_RATE);
+        // Counts and gaps above 127 need multi-byte varints
+        for (int i = 0; i < 300; i++) {
+            monday.add(0);
+            both.add(0);
+        }
+        monday.add(300);
+        both.add(300);
+        for (int bpm = 60; bpm < 80; bpm++) {
+            tuesday.add(bpm);
+            both.add(bpm);
+        }
+
+        VitalHistogram merged = new VitalHistogram(Vital.HEART_RATE);
+        merged.merge(monday.encode());
+        merged.merge(tuesday.encode());
+        merged.merge(null);
+
+        assertEquals(both.count(), merged.count());
+        assertArrayEquals(both.encode(), merged.encode());
+        for (double q : new double[]{0, 0.5, 0.9, 0.95, 1}) {
+            assertEquals(both.quantile(q), merged.quantile(q), "q=" + q);
+        }
+    }
+}
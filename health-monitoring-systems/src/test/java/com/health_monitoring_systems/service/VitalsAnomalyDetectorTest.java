@@ -0,0 +1,97 @@
+package com.health_monitoring_systems.service;
+
+import com.health_monitoring_systems.model.SensorData;
+import com.health_monitoring_systems.service.VitalsAnomalyDetector.Alert;
+import com.health_monitoring_systems.service.VitalsAnomalyDetector.Trigger;
+import com.health_monitoring_systems.service.VitalsAnomalyDetector.Vital;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class VitalsAnomalyDetectorTest {
+
+    private static final int WARMUP = 30;
+
+    private AnomalyAlertNotifier notifier;
+    private VitalsAnomalyDetector detector;
+    private long clock;
+
+    @BeforeEach
+    void setUp() {
+        notifier = mock(AnomalyAlertNotifier.class);
+        detector = new VitalsAnomalyDetector(notifier, 0.05, 4.0, WARMUP, 3, 600, 300,
+                40, 150, 90, 100, 35.0, 38.5);
+        clock = 1_700_000_000_000L;
+    }
+
+    private void observe(float bpm) {
+        clock += 1000;
+        detector.observe("esp32-1", clock, new SensorData(22f, 40f, 36.6f, bpm, 97f));
+    }
+
+    // A resting heart rate with some beat-to-beat noise
+    private void settle(int samples) {
+        for (int i = 0; i < samples; i++) {
+            observe(i % 2 == 0 ? 68 : 72);
+        }
+    }
+
+    @Test
+    void noDeviationAlertsDuringWarmup() {
+        // Swings that would be huge z-scores later, but stay inside the absolute limits
+        for (int i = 0; i < WARMUP - 3; i++) {
+            observe(70);
+        }
+        observe(130);
+        observe(130);
+        observe(130);
+
+        verify(notifier, never()).submit(any());
+    }
+
+    @Test
+    void spikeAfterWarmupRaisesOneAlert() {
+        settle(100);
+        observe(120);
+        observe(120);
+        verify(notifier, never()).submit(any());
+        observe(120);
+        observe(120);
+
+        ArgumentCaptor<Alert> alert = ArgumentCaptor.forClass(Alert.class);
+        verify(notifier).submit(alert.capture());
+        assertEquals(Vital.BPM, alert.getValue().vital());
+        assertEquals(Trigger.DEVIATION, alert.getValue().trigger());
+        assertEquals(120f, alert.getValue().value());
+        assertTrue(alert.getValue().zScore() > 4, "z " + alert.getValue().zScore());
+    }
+
+    @Test
+    void slowDriftFollowsTheBaseline() {
+        settle(100);
+        // 70 to 110 bpm over ten minutes: a workout, not an event
+        for (int i = 0; i < 600; i++) {
+            observe(70 + i / 15f);
+        }
+
+        verify(notifier, never()).submit(any());
+    }
+
+    @Test
+    void absoluteLimitsAlertEvenBeforeWarmup() {
+        observe(35);
+        observe(35);
+        observe(35);
+
+        ArgumentCaptor<Alert> alert = ArgumentCaptor.forClass(Alert.class);
+        verify(notifier).submit(alert.capture());
+        assertEquals(Trigger.BELOW_MIN, alert.getValue().trigger());
+    }
+}